@@ -0,0 +1,135 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.compute.NetworkCompiler;
+import com.buaisociety.pacman.entity.Entity;
+import com.buaisociety.pacman.entity.EntityType;
+import com.buaisociety.pacman.entity.GhostEntity;
+import com.buaisociety.pacman.entity.PacmanEntity;
+import com.buaisociety.pacman.entity.behavior.Behavior;
+import com.buaisociety.pacman.event.EntityPreSpawnEvent;
+import com.buaisociety.pacman.event.NextLevelEvent;
+import com.buaisociety.pacman.maze.Maze;
+import com.buaisociety.pacman.util.EventSystem;
+import com.cjcrafter.neat.compute.Calculator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the games the benchmarks run on. Games are set up the same way the
+ * headless trainer sets them up, from the real maze assets, so the numbers
+ * match what training actually does.
+ */
+public final class BenchmarkGames {
+
+    private static boolean initialized;
+
+    // Prevent instantiation
+    private BenchmarkGames() {
+    }
+
+    /**
+     * Starts a headless libGDX application, so the maze assets can be loaded
+     * through {@link Gdx#files}. Does nothing after the first call.
+     */
+    public static synchronized void init() {
+        if (initialized)
+            return;
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // Never call render(), so the application thread doesn't compete with the benchmarks
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+        initialized = true;
+    }
+
+    /**
+     * Loads a calculator from the saves folder.
+     *
+     * @param save the path of the calculator, relative to <code>assets/saves</code>
+     * @return the compiled calculator
+     */
+    public static @NotNull Calculator loadCalculator(@NotNull String save) {
+        init();
+        return NetworkCompiler.compile(Gdx.files.internal("saves/" + save).readString());
+    }
+
+    /**
+     * Creates a game on the given maze, with the start of the level already
+     * skipped. Each game gets its own event system, like in training.
+     *
+     * @param maze the name of the maze, from <code>assets/mazes</code>
+     * @param pacmanBehavior the behavior controlling pacman, or null to leave pacman standing still
+     * @return the game
+     */
+    public static @NotNull GameManager createGame(@NotNull String maze, @Nullable Behavior pacmanBehavior) {
+        init();
+        EventSystem events = createEvents(maze);
+        if (pacmanBehavior != null) {
+            events.registerListener(EntityPreSpawnEvent.class, event -> {
+                if (event.getEntityType() == EntityType.PACMAN)
+                    ((PacmanEntity.Config) event.getConfig()).behavior = pacmanBehavior;
+            });
+        }
+
+        GameManager game = new GameManager(events, createConfig());
+        game.nextLevel();
+        getMaze(game).skipFrozenTicks();
+        return game;
+    }
+
+    /**
+     * Creates the event system of a game, which makes every level of the
+     * game use the given maze, instead of following the levels preset.
+     *
+     * @param maze the name of the maze, from <code>assets/mazes</code>
+     * @return the event system
+     */
+    public static @NotNull EventSystem createEvents(@NotNull String maze) {
+        EventSystem events = new EventSystem();
+        events.registerListener(NextLevelEvent.class, event -> event.setNextLevel(maze));
+        return events;
+    }
+
+    /**
+     * Returns the config the games are created with.
+     *
+     * @return a new config
+     */
+    public static @NotNull GameManager.Config createConfig() {
+        GameManager.Config config = new GameManager.Config();
+        config.headless = true;
+        config.fastForward = true;
+        return config;
+    }
+
+    public static @NotNull Maze getMaze(@NotNull GameManager game) {
+        Maze maze = game.getCurrentMaze();
+        if (maze == null)
+            throw new IllegalStateException("Game has no maze");
+        return maze;
+    }
+
+    /**
+     * Returns the ghosts of the game, in the order they were spawned.
+     *
+     * @param game the game
+     * @return the ghosts
+     */
+    public static @NotNull List<GhostEntity> getGhosts(@NotNull GameManager game) {
+        List<GhostEntity> ghosts = new ArrayList<>();
+        for (Entity entity : getMaze(game).getEntities()) {
+            if (entity instanceof GhostEntity ghost)
+                ghosts.add(ghost);
+        }
+        return ghosts;
+    }
+}
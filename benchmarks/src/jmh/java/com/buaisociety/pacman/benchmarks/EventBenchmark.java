@@ -0,0 +1,78 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.buaisociety.pacman.util.Event;
+import com.buaisociety.pacman.util.EventSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventSystem#fireEvent(Event)}, with the event systems set up
+ * like in training: 1 event system per game, with a shared parent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventBenchmark {
+
+    public static class BenchmarkEvent implements Event {
+        public int value;
+    }
+
+    private final BenchmarkEvent event = new BenchmarkEvent();
+    private int received;  // so the listeners have work the JIT can't remove
+    private EventSystem empty;
+    private EventSystem local;
+    private EventSystem inherited;
+
+    @Setup
+    public void createEventSystems() {
+        EventSystem parent = new EventSystem();
+        empty = new EventSystem(parent);
+
+        local = new EventSystem(parent);
+        local.registerListener(BenchmarkEvent.class, fired -> received += fired.value);
+
+        EventSystem listeningParent = new EventSystem();
+        listeningParent.registerListener(BenchmarkEvent.class, fired -> received += fired.value);
+        inherited = new EventSystem(listeningParent);
+    }
+
+    /**
+     * Firing an event no one listens to.
+     */
+    @Benchmark
+    public BenchmarkEvent fireWithoutListeners() {
+        return empty.fireEvent(event);
+    }
+
+    /**
+     * Firing an event with a listener on the game's own event system.
+     */
+    @Benchmark
+    public BenchmarkEvent fireLocalListener() {
+        return local.fireEvent(event);
+    }
+
+    /**
+     * Firing an event with a listener on the shared parent.
+     */
+    @Benchmark
+    public BenchmarkEvent fireParentListener() {
+        return inherited.fireEvent(event);
+    }
+
+    /**
+     * The check the game does before creating an event no one listens to.
+     */
+    @Benchmark
+    public boolean hasListeners() {
+        return empty.hasListeners(BenchmarkEvent.class);
+    }
+}
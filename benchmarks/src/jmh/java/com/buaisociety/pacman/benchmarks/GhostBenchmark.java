@@ -0,0 +1,63 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.entity.Direction;
+import com.buaisociety.pacman.entity.GhostEntity;
+import com.buaisociety.pacman.entity.GhostState;
+import com.buaisociety.pacman.entity.behavior.TargetableBehavior;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single ghost, outside the rest of the maze. Pacman stands still
+ * on its spawn, so the ghosts chase a fixed target.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GhostBenchmark {
+
+    // The index of the ghost in spawn order, on the maze with all 4 ghosts
+    @Param({"0", "1", "2", "3"})
+    public int ghostIndex;
+
+    private GhostEntity ghost;
+    private TargetableBehavior chase;
+
+    @Setup(Level.Iteration)
+    public void createGame() {
+        GameManager game = BenchmarkGames.createGame("9", null);
+        ghost = BenchmarkGames.getGhosts(game).get(ghostIndex);
+        ghost.setReleased(true);
+        ghost.setState(GhostState.CHASE);
+        chase = (TargetableBehavior) ghost.getBehavior(GhostState.CHASE);
+    }
+
+    /**
+     * {@link GhostEntity#update()}, which moves the ghost and picks a new
+     * direction at each intersection.
+     */
+    @Benchmark
+    public GhostEntity update() {
+        ghost.update();
+        return ghost;
+    }
+
+    /**
+     * {@link TargetableBehavior#getDirection(com.buaisociety.pacman.entity.Entity)}
+     * of the ghost's chase behavior, from wherever the ghost currently is.
+     */
+    @Benchmark
+    public Direction chaseDirection() {
+        return chase.getDirection(ghost);
+    }
+}
@@ -0,0 +1,56 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.entity.behavior.TournamentBehavior;
+import com.cjcrafter.neat.compute.Calculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures 1 tick of a whole game: {@link com.buaisociety.pacman.maze.Maze#update()},
+ * with pacman played by a saved network, and the game handling the maze
+ * being won or lost afterward.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MazeBenchmark {
+
+    // The ghosts are added 1 maze at a time, so maze 0 has none and maze 9 has all 4
+    @Param({"0", "9"})
+    public String maze;
+
+    @Param({"oct26-72/best-calculator-36.json", "oct26-80/best-calculator-63.json", "oct26-83/best-calculator-87.json"})
+    public String save;
+
+    private Calculator calculator;
+    private GameManager game;
+
+    @Setup(Level.Trial)
+    public void loadSave() {
+        calculator = BenchmarkGames.loadCalculator(save);
+    }
+
+    @Setup(Level.Iteration)
+    public void createGame() {
+        game = BenchmarkGames.createGame(maze, new TournamentBehavior(calculator));
+        // The game would end once pacman runs out of lives, so it never does
+        game.setExtraLives(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public GameManager update() {
+        game.update();
+        game.postUpdate();
+        return game;
+    }
+}
@@ -0,0 +1,70 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.NeatConfig;
+import com.buaisociety.pacman.entity.PacmanEntity;
+import com.buaisociety.pacman.entity.behavior.NeatPacmanBehavior;
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.NeatImpl;
+import com.cjcrafter.neat.Parameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the work {@link NeatPacmanBehavior} does before its network is
+ * evaluated. The inputs only depend on the maze, not on the weights of the
+ * network, so pacman is played by a new client instead of a saved one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NeatInputsBenchmark {
+
+    // The ghosts are added 1 maze at a time, so maze 0 has none and maze 9 has all 4
+    @Param({"0", "9"})
+    public String maze;
+
+    private NeatPacmanBehavior behavior;
+    private PacmanEntity pacman;
+
+    @Setup(Level.Trial)
+    public void createGame() {
+        Parameters parameters = new Parameters();
+        parameters.setUseBiasNode(NeatConfig.biasEnabled);
+        Client client = new NeatImpl(NeatConfig.neatInputNodes, NeatConfig.neatOutputNodes, 1, parameters).getClients().get(0);
+
+        behavior = new NeatPacmanBehavior(client, null, 0, null);
+        GameManager game = BenchmarkGames.createGame(maze, behavior);
+        pacman = BenchmarkGames.getMaze(game).getPacman();
+
+        // Lets the behavior find its pacman, which computeDistances() needs
+        behavior.buildInputs(pacman);
+    }
+
+    /**
+     * {@link NeatPacmanBehavior#computeDistances()}, the distance from pacman
+     * to every tile.
+     */
+    @Benchmark
+    public int[][] computeDistances() {
+        return behavior.computeDistances();
+    }
+
+    /**
+     * {@link NeatPacmanBehavior#buildInputs(PacmanEntity)}, the inputs of
+     * the network.
+     */
+    @Benchmark
+    public float[] buildInputs() {
+        return behavior.buildInputs(pacman);
+    }
+}
@@ -0,0 +1,46 @@
+package com.buaisociety.pacman.benchmarks;
+
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.util.EventSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GameManager#nextLevel()} for a new game, which is what
+ * every game of every generation starts with. The maze templates are loaded
+ * during setup, so this only measures creating the maze and its entities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NextLevelBenchmark {
+
+    // The ghosts are added 1 maze at a time, so maze 0 has none and maze 9 has all 4
+    @Param({"0", "9"})
+    public String maze;
+
+    private EventSystem events;
+    private GameManager.Config config;
+
+    @Setup
+    public void loadTemplates() {
+        BenchmarkGames.createGame(maze, null);
+        events = BenchmarkGames.createEvents(maze);
+        config = BenchmarkGames.createConfig();
+    }
+
+    @Benchmark
+    public GameManager nextLevel() {
+        GameManager game = new GameManager(events, config);
+        game.nextLevel();
+        return game;
+    }
+}
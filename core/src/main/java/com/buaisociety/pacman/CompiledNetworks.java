@@ -0,0 +1,49 @@
+package com.buaisociety.pacman;
+
+import com.buaisociety.pacman.compute.NetworkCompiler;
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.compute.Calculator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Holds the compiled network of each client in the population, so each
+ * network is only compiled once per generation.
+ *
+ * <p>Each game owns 1 slot (its client id), and networks are compiled the
+ * first time the game needs them. The population changes when it evolves,
+ * so {@link #clear()} must be called after every evolution.
+ */
+public class CompiledNetworks {
+
+    private final @NotNull Calculator[] calculators;  // slot -> compiled calculator, or null if not compiled yet
+
+    public CompiledNetworks(int slots) {
+        this.calculators = new Calculator[slots];
+    }
+
+    /**
+     * Returns the calculator to use for the given client, compiling its
+     * network if this is the first time it is needed this generation.
+     *
+     * @param slot the slot owned by the game
+     * @param client the client whose network should be compiled
+     * @return the compiled calculator, or the client's own calculator if it could not be compiled
+     */
+    public @NotNull Calculator get(int slot, @NotNull Client client) {
+        Calculator calculator = calculators[slot];
+        if (calculator == null) {
+            calculator = NetworkCompiler.compile(client, NeatConfig.biasEnabled);
+            calculators[slot] = calculator;
+        }
+        return calculator;
+    }
+
+    /**
+     * Forgets every compiled network.
+     */
+    public void clear() {
+        Arrays.fill(calculators, null);
+    }
+}
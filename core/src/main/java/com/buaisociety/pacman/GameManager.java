@@ -3,15 +3,12 @@ package com.buaisociety.pacman;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.buaisociety.pacman.entity.Direction;
+import com.buaisociety.pacman.entity.Entity;
 import com.buaisociety.pacman.entity.EntityType;
 import com.buaisociety.pacman.entity.GhostEntity;
 import com.buaisociety.pacman.entity.PacmanEntity;
-import com.buaisociety.pacman.entity.behavior.Behavior;
 import com.buaisociety.pacman.entity.behavior.JoystickInputBehavior;
 import com.buaisociety.pacman.event.CreateMazeEvent;
 import com.buaisociety.pacman.event.EntityPreSpawnEvent;
@@ -19,24 +16,24 @@ import com.buaisociety.pacman.event.EntitySpawnEvent;
 import com.buaisociety.pacman.event.GameEndEvent;
 import com.buaisociety.pacman.event.LoseLifeEvent;
 import com.buaisociety.pacman.event.NextLevelEvent;
+import com.buaisociety.pacman.jfr.EpisodeEvent;
+import com.buaisociety.pacman.jfr.LevelLoadEvent;
+import com.buaisociety.pacman.jfr.LifeLostEvent;
 import com.buaisociety.pacman.maze.Maze;
+import com.buaisociety.pacman.maze.MazeTemplate;
 import com.buaisociety.pacman.maze.TerminalReason;
-import com.buaisociety.pacman.maze.TileState;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.sprite.GrayscaleSpriteSheet;
 import com.buaisociety.pacman.sprite.TextSpriteSheet;
 import com.buaisociety.pacman.util.Disposable;
 import com.buaisociety.pacman.util.EventSystem;
 import com.buaisociety.pacman.util.Joystick;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2i;
 
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.StreamSupport;
+import java.util.Random;
 
 /**
  * Handles moving between levels, and setting up the maze for each level.
@@ -45,13 +42,16 @@ public class GameManager implements Disposable {
 
     private final @NotNull EventSystem events;
     private final @NotNull Config config;
+    private final @NotNull Random random;
 
     private int level;
     private int extraLives;
     private int score;
+    private long ticks;  // since the game started, including every level
+    private @Nullable EpisodeEvent episode = new EpisodeEvent();  // null once the game has ended
     private @Nullable Maze currentMaze;
-    private @NotNull TextSpriteSheet textSprite;
-    private @NotNull GrayscaleSpriteSheet pacmanSprite;
+    private @Nullable TextSpriteSheet textSprite;
+    private @Nullable GrayscaleSpriteSheet pacmanSprite;
 
     public GameManager(@NotNull EventSystem events, @NotNull Config config) {
         this.events = events;
@@ -61,11 +61,17 @@ public class GameManager implements Disposable {
         this.extraLives = config.startLives;
         this.score = config.startScore;
         this.currentMaze = null;
+        this.random = config.seed == null ? new Random() : new Random(config.seed);
+        episode.begin();
 
+        // Sprites are only loaded once this game is actually rendered, so
+        // games that are never drawn never touch the GPU.
         this.textSprite = config.textSprite;
-        textSprite.getSpriteSheet().setColors(Color.CLEAR, Color.WHITE);
+        if (textSprite != null)
+            textSprite.getSpriteSheet().setColors(Color.CLEAR, Color.WHITE);
         this.pacmanSprite = config.pacmanSprite;
-        pacmanSprite.setColors(Color.CLEAR, Color.YELLOW);
+        if (pacmanSprite != null)
+            pacmanSprite.setColors(Color.CLEAR, Color.YELLOW);
     }
 
     /**
@@ -106,10 +112,48 @@ public class GameManager implements Disposable {
         return score;
     }
 
+    /**
+     * Returns the number of ticks since the game started, including every
+     * level and the ticks skipped by {@link Config#fastForward}.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the random number generator of this game. Everything random in
+     * the game (like frightened ghosts) should use this, so games created
+     * with the same {@link Config#seed} play out the same way.
+     *
+     * @return the random number generator
+     */
+    public @NotNull Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns the sprite sheet used to draw text, loading it on first use.
+     *
+     * @return the text sprite sheet
+     */
     public @NotNull TextSpriteSheet getTextSprite() {
+        if (textSprite == null) {
+            textSprite = new TextSpriteSheet(new GrayscaleSpriteSheet(new Texture("sprites/text-sprite.png"), 8));
+            textSprite.getSpriteSheet().setColors(Color.CLEAR, Color.WHITE);
+        }
         return textSprite;
     }
 
+    private @NotNull GrayscaleSpriteSheet getPacmanSprite() {
+        if (pacmanSprite == null) {
+            pacmanSprite = new GrayscaleSpriteSheet(new Texture("sprites/pacman-sprite.png"), 20);
+            pacmanSprite.setColors(Color.CLEAR, Color.YELLOW);
+        }
+        return pacmanSprite;
+    }
+
     /**
      * Increments the score by the given amount.
      *
@@ -167,13 +211,19 @@ public class GameManager implements Disposable {
                 level = 0;
                 extraLives = config.startLives;
                 score = config.startScore;
+                ticks = 0;
+                episode = new EpisodeEvent();
+                episode.begin();
                 nextLevel();
             }
 
             return;
         }
 
+        if (config.fastForward)
+            ticks += currentMaze.skipFrozenTicks();
         currentMaze.update();
+        ticks++;
     }
 
     public void postUpdate() {
@@ -185,18 +235,51 @@ public class GameManager implements Disposable {
             currentMaze.reset();
 
             // Fire an event to allow modification of the number of lives remaining
-            LoseLifeEvent event = new LoseLifeEvent(currentMaze.getPacman(), extraLives - 1);
-            events.fireEvent(event);
-            if (event.isCancelled())
-                return;
+            if (events.hasListeners(LoseLifeEvent.class)) {
+                LoseLifeEvent event = events.fireEvent(new LoseLifeEvent(currentMaze.getPacman(), extraLives - 1));
+                if (event.isCancelled())
+                    return;
+
+                extraLives = event.getNumLives();
+            } else {
+                extraLives--;
+            }
 
-            extraLives = event.getNumLives();
+            LifeLostEvent lifeLost = new LifeLostEvent();
+            if (lifeLost.shouldCommit()) {
+                lifeLost.game = config.id;
+                lifeLost.level = level;
+                lifeLost.livesLeft = extraLives;
+                lifeLost.ticks = ticks;
+                lifeLost.commit();
+            }
         }
 
-        if (extraLives < 0) {
-            GameEndEvent event = new GameEndEvent(this);
-            events.fireEvent(event);
+        if (extraLives < 0)
+            endEpisode();
+        if (extraLives < 0 && events.hasListeners(GameEndEvent.class)) {
+            events.fireEvent(new GameEndEvent(this));
+        }
+    }
+
+    /**
+     * Records the game that just ended for the flight recorder. The game over
+     * screen keeps calling {@link #postUpdate()}, so this only records the
+     * first call.
+     */
+    private void endEpisode() {
+        if (episode == null)
+            return;
+
+        episode.end();
+        if (episode.shouldCommit()) {
+            episode.game = config.id;
+            episode.level = level;
+            episode.score = score;
+            episode.ticks = ticks;
+            episode.commit();
         }
+        episode = null;
     }
 
     /**
@@ -209,6 +292,7 @@ public class GameManager implements Disposable {
             return;
 
         currentMaze.render(batch);
+        TextSpriteSheet textSprite = getTextSprite();
         textSprite.render(batch, Maze.TILE_SIZE * 9, Maze.TILE_SIZE * 35, "HIGH SCORE");
 
         // Arcade Pacman only shows scores once Pacman has collected a dot
@@ -218,6 +302,7 @@ public class GameManager implements Disposable {
 
         // Show the number of lives remaining
         Vector2i pacmanSpriteTile = new Vector2i(0, 2);
+        GrayscaleSpriteSheet pacmanSprite = getPacmanSprite();
         for (int i = 0; i < extraLives; i++) {
             pacmanSprite.setCurrentTile(pacmanSpriteTile.x, pacmanSpriteTile.y);
             pacmanSprite.render(batch, Maze.TILE_SIZE * 2 + i * Maze.TILE_SIZE * 2, -1);
@@ -234,157 +319,88 @@ public class GameManager implements Disposable {
      * Moves to the next level, and sets up the maze for that level.
      */
     public void nextLevel() {
-        level++;
-
-        // Parse levels.json, and determine the name of the next level
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode levelsJson;
-        try {
-            levelsJson = mapper.readTree(Gdx.files.internal(config.levelsPreset).readString());
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load " + config.levelsPreset, e);
+        long start = Phase.LEVEL_LOAD.start();
+        LevelLoadEvent event = new LevelLoadEvent();
+        event.begin();
+        loadNextLevel();
+        event.end();
+        if (event.shouldCommit() && currentMaze != null) {
+            event.game = config.id;
+            event.level = level;
+            event.maze = currentMaze.getLevelName();
+            event.commit();
         }
+        Phase.LEVEL_LOAD.stop(start);
+    }
 
-        ArrayNode allLevels = (ArrayNode) levelsJson.get("levels");
-        String nextLevelName = allLevels.get(Math.min(level, allLevels.size()) - 1).asText();
+    private void loadNextLevel() {
+        level++;
 
-        // Fire an event to allow modification of the next level name
-        NextLevelEvent event = new NextLevelEvent(nextLevelName);
-        events.fireEvent(event);
-        nextLevelName = event.getNextLevel();
-
-        // Now that we have the next level name, we should get the maze for it
-        JsonNode mazeConfigJson;
-        try {
-            mazeConfigJson = mapper.readTree(Gdx.files.internal("mazes/" + nextLevelName + "/config.json").readString());
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load maze config for " + nextLevelName, e);
-        }
+        // Determine the name of the next level from levels.json
+        List<String> allLevels = MazeTemplate.getLevels(config.levelsPreset);
+        String nextLevelName = allLevels.get(Math.min(level, allLevels.size()) - 1);
 
-        Pixmap pixmap = new Pixmap(Gdx.files.internal("mazes/" + nextLevelName + "/maze.png"));
-        TileState[][] tiles = new TileState[pixmap.getHeight()][pixmap.getWidth()];
-        for (int y = 0; y < pixmap.getHeight(); y++) {
-            for (int x = 0; x < pixmap.getWidth(); x++) {
-                int pixel = pixmap.getPixel(x, y);
-                Color color = new Color(pixel);
-                int red = (int) (color.r * 255);  // grayscale, so r=g=b
-
-                // This is a 4-bit grayscale image, so we can only have 16 colors
-                int normalized = red / (256 / (TileState.values().length - 1));
-                tiles[pixmap.getHeight() - 1 - y][x] = switch (normalized) {
-                    case 0 -> TileState.SPACE;
-                    case 1 -> TileState.TUNNEL;
-                    case 2 -> TileState.PELLET;
-                    case 3 -> TileState.POWER_PELLET;
-                    case 4 -> TileState.GHOST_PEN;
-                    case 5 -> TileState.WALL;
-                    default -> throw new IllegalStateException("Unexpected value: " + normalized);
-                };
-            }
-        }
-
-        Sprite levelSprite = new Sprite(new Texture("mazes/" + nextLevelName + "/render.png"));
-
-        Vector2i fruitSpawnPixel = parseVector(mazeConfigJson.get("fruit_spawn_position"));
-        Maze maze = new Maze(this, levelSprite, tiles, fruitSpawnPixel);
-        Vector2i pacmanSpawnPixel = parseVector(mazeConfigJson.get("pacman_spawn_position"));
-        Vector2i ghostRevivePixel = parseVector(mazeConfigJson.get("ghost_revive_position"));
-
-        for (JsonNode ghostNode : mazeConfigJson.get("ghosts")) {
-            String ghostName = ghostNode.get("name").asText();  // expect a value like 'ghosts/inky.json'
-            Vector2i ghostSpawnPixel = parseVector(ghostNode.get("spawn_position"));
-            Direction ghostSpawnDirection = Direction.valueOf(ghostNode.get("spawn_direction").asText().toUpperCase(Locale.ROOT));
-            boolean isReleased = ghostNode.get("is_released").asBoolean();
-            Vector2i ghostScatterTile = parseVector(ghostNode.get("scatter_tile"));
-
-            JsonNode ghostJson;
-            try {
-                ghostJson = mapper.readTree(Gdx.files.internal(ghostName).readString());
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to load ghost config for " + ghostName, e);
-            }
+        // Fire an event to allow modification of the next level name
+        if (events.hasListeners(NextLevelEvent.class))
+            nextLevelName = events.fireEvent(new NextLevelEvent(nextLevelName)).getNextLevel();
 
-            String behaviorClassPath = ghostJson.get("chase_behavior").asText();
-            boolean isElroy = ghostJson.get("is_elroy").asBoolean();
-            Behavior behavior;
-            try {
-                behavior = (Behavior) Class.forName(behaviorClassPath).getConstructor().newInstance();
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to load behavior for " + ghostName, e);
-            }
+        // Now that we have the next level name, we should get the maze for it.
+        // Templates are shared by every game, so this only hits the disk once.
+        MazeTemplate template = MazeTemplate.get(nextLevelName);
+        Maze maze = new Maze(this, template);
 
-            JsonNode colorJson = ghostJson.get("colors");
-            List<Color> aliveColors = StreamSupport.stream(colorJson.get("alive").spliterator(), false)
-                .map(GameManager::parseColor)
-                .toList();
-            List<Color> frightenedColors = StreamSupport.stream(colorJson.get("frightened").spliterator(), false)
-                .map(GameManager::parseColor)
-                .toList();
-            List<Color> flashColors = StreamSupport.stream(colorJson.get("flash").spliterator(), false)
-                .map(GameManager::parseColor)
-                .toList();
-            List<Color> eatenColors = StreamSupport.stream(colorJson.get("eaten").spliterator(), false)
-                .map(GameManager::parseColor)
-                .toList();
-
-            GhostEntity.Config ghostConfig = new GhostEntity.Config();
-            ghostConfig.isElroy = isElroy;
-            ghostConfig.spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/ghost-sprite.png"), 20);
-            ghostConfig.chase = behavior;
-            ghostConfig.scatterTile = ghostScatterTile;
-            ghostConfig.spawnPixel = ghostSpawnPixel;
-            ghostConfig.spawnDirection = ghostSpawnDirection;
-            ghostConfig.spawnReleased = isReleased;
-            ghostConfig.reviveTile = ghostRevivePixel;
-            ghostConfig.colorsAlive = aliveColors.toArray(new Color[0]);
-            ghostConfig.colorsFrightened = frightenedColors.toArray(new Color[0]);
-            ghostConfig.colorsFlash = flashColors.toArray(new Color[0]);
-            ghostConfig.colorsEaten = eatenColors.toArray(new Color[0]);
+        for (MazeTemplate.GhostTemplate ghostTemplate : template.getGhosts()) {
+            GhostEntity.Config ghostConfig = ghostTemplate.createConfig();
 
             // Fire an event to allow modification of the ghost config
-            EntityPreSpawnEvent preSpawnEvent = new EntityPreSpawnEvent(maze, EntityType.GHOST, ghostConfig);
-            events.fireEvent(preSpawnEvent);
-            ghostConfig = (GhostEntity.Config) preSpawnEvent.getConfig();
-            if (preSpawnEvent.isCancelled())
-                continue;
+            if (events.hasListeners(EntityPreSpawnEvent.class)) {
+                EntityPreSpawnEvent preSpawnEvent = events.fireEvent(new EntityPreSpawnEvent(maze, EntityType.GHOST, ghostConfig));
+                ghostConfig = (GhostEntity.Config) preSpawnEvent.getConfig();
+                if (preSpawnEvent.isCancelled())
+                    continue;
+            }
 
-            GhostEntity ghost = new GhostEntity(maze, ghostConfig);
+            Entity ghost = new GhostEntity(maze, ghostConfig);
 
             // Fire an event to alert that the ghost has been spawned
-            EntitySpawnEvent spawnEvent = new EntitySpawnEvent(ghost);
-            events.fireEvent(spawnEvent);
-            if (spawnEvent.isCancelled())
-                continue;
+            if (events.hasListeners(EntitySpawnEvent.class)) {
+                EntitySpawnEvent spawnEvent = events.fireEvent(new EntitySpawnEvent(ghost));
+                if (spawnEvent.isCancelled())
+                    continue;
+                ghost = spawnEvent.getEntity();
+            }
 
-            maze.getEntities().add(spawnEvent.getEntity());
+            maze.getEntities().add(ghost);
         }
 
         Joystick joystick = new Joystick();
         Gdx.input.setInputProcessor(joystick);
         PacmanEntity.Config pacmanConfig = new PacmanEntity.Config();
         pacmanConfig.behavior = new JoystickInputBehavior(joystick);
-        pacmanConfig.spawnPixel = pacmanSpawnPixel;
-        pacmanConfig.spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/pacman-sprite.png"), 20);
+        pacmanConfig.spawnPixel = new Vector2i(template.getPacmanSpawnPixel());
 
         // Fire an event to allow modification of the pacman config
-        EntityPreSpawnEvent preSpawnEvent = new EntityPreSpawnEvent(maze, EntityType.PACMAN, pacmanConfig);
-        events.fireEvent(preSpawnEvent);
-        pacmanConfig = (PacmanEntity.Config) preSpawnEvent.getConfig();
-        if (preSpawnEvent.isCancelled())
-            return;
+        if (events.hasListeners(EntityPreSpawnEvent.class)) {
+            EntityPreSpawnEvent preSpawnEvent = events.fireEvent(new EntityPreSpawnEvent(maze, EntityType.PACMAN, pacmanConfig));
+            pacmanConfig = (PacmanEntity.Config) preSpawnEvent.getConfig();
+            if (preSpawnEvent.isCancelled())
+                return;
+        }
 
-        PacmanEntity pacman = new PacmanEntity(maze, pacmanConfig);
+        Entity pacman = new PacmanEntity(maze, pacmanConfig);
 
         // Fire an event to alert that the pacman has been spawned
-        EntitySpawnEvent spawnEvent = new EntitySpawnEvent(pacman);
-        events.fireEvent(spawnEvent);
-        if (spawnEvent.isCancelled())
-            return;
+        if (events.hasListeners(EntitySpawnEvent.class)) {
+            EntitySpawnEvent spawnEvent = events.fireEvent(new EntitySpawnEvent(pacman));
+            if (spawnEvent.isCancelled())
+                return;
+            pacman = spawnEvent.getEntity();
+        }
 
-        maze.getEntities().add(spawnEvent.getEntity());
+        maze.getEntities().add(pacman);
 
-        CreateMazeEvent createMazeEvent = new CreateMazeEvent(maze);
-        events.fireEvent(createMazeEvent);
+        if (events.hasListeners(CreateMazeEvent.class))
+            events.fireEvent(new CreateMazeEvent(maze));
         this.currentMaze = maze;
     }
 
@@ -395,32 +411,23 @@ public class GameManager implements Disposable {
     public void dispose() {
         if (currentMaze != null)
             currentMaze.dispose();
-        textSprite.dispose();
-        pacmanSprite.dispose();
-    }
-
-    private static @NotNull Color parseColor(@NotNull JsonNode node) {
-        return new Color(
-            (float) node.get("r").asDouble(),
-            (float) node.get("g").asDouble(),
-            (float) node.get("b").asDouble(),
-            (float) node.get("a").asDouble()
-        );
+        if (textSprite != null)
+            textSprite.dispose();
+        if (pacmanSprite != null)
+            pacmanSprite.dispose();
     }
 
-    private static @NotNull Vector2i parseVector(@NotNull JsonNode node) {
-        return new Vector2i(node.get("x").asInt(), node.get("y").asInt());
-    }
-
-
     public static class Config {
         public int id = 0;
-        public @NotNull TextSpriteSheet textSprite = new TextSpriteSheet(new GrayscaleSpriteSheet(new Texture("sprites/text-sprite.png"), 8));
-        public @NotNull GrayscaleSpriteSheet pacmanSprite = new GrayscaleSpriteSheet(new Texture("sprites/pacman-sprite.png"), 20);
+        public @Nullable TextSpriteSheet textSprite = null;  // null means load the default sprite when first rendered
+        public @Nullable GrayscaleSpriteSheet pacmanSprite = null;  // null means load the default sprite when first rendered
+        public boolean headless = false;  // true skips visual-only work (like particles), so no GL context is needed
         public String levelsPreset = "levels.json";
         public int startLevel = 0;  // when nextLevel() is called for the first time, this gets incremented to 1
         public int startLives = 2;
         public int startScore = 0;
         public int handicap = 0;  // Delays the level speed changes by this many levels
+        public boolean fastForward = false;  // true skips the ticks where the maze is frozen in 1 update
+        public @Nullable Long seed = null;  // null means every game is different
     }
 }
@@ -0,0 +1,135 @@
+package com.buaisociety.pacman;
+
+import com.buaisociety.pacman.metrics.Counter;
+import com.buaisociety.pacman.metrics.Metrics;
+import com.buaisociety.pacman.metrics.Phase;
+import com.buaisociety.pacman.util.Disposable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs ticks of many games in parallel on a work-stealing {@link ForkJoinPool}.
+ *
+ * <p>The running games are split in half recursively, until each chunk is
+ * small enough (a few chunks per worker). Each chunk then runs its games
+ * for many ticks without waiting for any other chunk, so a chunk of short
+ * games finishes early and its worker steals work from the chunks that are
+ * still running.
+ *
+ * <p>{@link GameManager#postUpdate()} runs right after each game's update,
+ * on the same worker. Everything it touches belongs to that game (textures
+ * are only loaded when rendering, and the shared event system and maze
+ * templates are thread-safe), so the render thread never has to wait for
+ * it.
+ */
+public class GameScheduler implements Disposable {
+
+    // Ticks run by each worker, looked up once per chunk instead of once per tick
+    private static final ThreadLocal<Counter> WORKER_TICKS = ThreadLocal.withInitial(
+        () -> Metrics.counter("Ticks (" + Thread.currentThread().getName() + ")")
+    );
+
+    private final @NotNull ForkJoinPool pool;
+
+    /**
+     * Creates a scheduler with its own pool of workers.
+     *
+     * @param parallelism the number of workers
+     */
+    public GameScheduler(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Advances every running game by up to the given number of ticks, and
+     * blocks until they are done. Games that end stop early.
+     *
+     * @param games every game, indexed by client id
+     * @param ticks the maximum number of ticks to run
+     */
+    public void run(@NotNull List<PacmanNeatClient> games, int ticks) {
+        int[] running = new int[games.size()];
+        int count = 0;
+        for (int i = 0; i < games.size(); i++) {
+            if (!games.get(i).getGameCompleteFuture().isDone())
+                running[count++] = i;
+        }
+        if (count == 0)
+            return;
+
+        int chunkSize = Math.max(1, count / (pool.getParallelism() * 4));
+        pool.invoke(new Chunk(games, running, 0, count, chunkSize, ticks));
+    }
+
+    @Override
+    public void dispose() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * A range of the running games, split in half until it is small enough.
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull List<PacmanNeatClient> games;
+        private final int[] running;  // indices of the running games
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final int ticks;
+
+        Chunk(@NotNull List<PacmanNeatClient> games, int[] running, int from, int to, int chunkSize, int ticks) {
+            this.games = games;
+            this.running = running;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.ticks = ticks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new Chunk(games, running, from, middle, chunkSize, ticks),
+                    new Chunk(games, running, middle, to, chunkSize, ticks)
+                );
+                return;
+            }
+
+            int ticked = runGames();
+            if (Metrics.isEnabled())
+                WORKER_TICKS.get().add(ticked);
+        }
+
+        private int runGames() {
+            // Nothing is shared between games, so finish each game before
+            // moving on to the next one while its state is still in cache
+            int ticked = 0;
+            for (int i = from; i < to; i++) {
+                PacmanNeatClient game = games.get(running[i]);
+                for (int tick = 0; tick < ticks && !game.getGameCompleteFuture().isDone(); tick++) {
+                    tick(game);
+                    ticked++;
+                }
+            }
+            return ticked;
+        }
+
+        private void tick(@NotNull PacmanNeatClient game) {
+            try {
+                game.getGameManager().update();
+                long start = Phase.POST_UPDATE.start();
+                game.getGameManager().postUpdate();
+                Phase.POST_UPDATE.stop(start);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
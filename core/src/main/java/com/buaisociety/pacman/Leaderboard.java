@@ -0,0 +1,238 @@
+package com.buaisociety.pacman;
+
+import com.buaisociety.pacman.checkpoint.AtomicFiles;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Ranks every saved network in the saves folder, by playing the same seeded
+ * tournament games with each of them (see {@link TournamentEvaluator}).
+ *
+ * <p>Scoring a save takes a while, so results are cached in
+ * <code>leaderboard-cache.json</code> by the SHA-256 hash of the file's
+ * content. Saves that were already scored, even if they were moved or
+ * renamed, are skipped. The cache is thrown away when the tournament
+ * settings, the number of games or the seed change, since the old scores
+ * can't be compared to the new ones. Changes to the game itself are not
+ * detected, so delete the cache after changing the rules.
+ */
+public class Leaderboard {
+
+    /**
+     * The files that are scored: the best calculator of each generation,
+     * the populations saved by neat4j, and binary saves.
+     */
+    private static final @NotNull Pattern SAVE = Pattern.compile("best-calculator-\\d+\\.json|generation-\\d+\\.json|.+\\.genomes");
+    private static final @NotNull ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * The score of 1 save.
+     *
+     * @param hash the SHA-256 hash of the file's content
+     * @param file the path of the file, relative to the saves folder
+     * @param games the number of games played
+     * @param meanScore the average final score
+     * @param medianScore the median final score
+     * @param maxScore the highest final score
+     * @param meanLevel the average level the games ended on
+     * @param meanTicks the average number of ticks pacman survived
+     */
+    public record Entry(@NotNull String hash, @NotNull String file, int games, double meanScore, int medianScore,
+                        int maxScore, double meanLevel, double meanTicks) {
+
+        private static @NotNull Entry of(@NotNull String hash, @NotNull String file, @NotNull List<TournamentEvaluator.Episode> episodes) {
+            int[] scores = episodes.stream().mapToInt(TournamentEvaluator.Episode::score).sorted().toArray();
+            return new Entry(hash, file, episodes.size(),
+                episodes.stream().mapToInt(TournamentEvaluator.Episode::score).average().orElse(0),
+                scores.length == 0 ? 0 : scores[scores.length / 2],
+                scores.length == 0 ? 0 : scores[scores.length - 1],
+                episodes.stream().mapToInt(TournamentEvaluator.Episode::level).average().orElse(0),
+                episodes.stream().mapToLong(TournamentEvaluator.Episode::ticks).average().orElse(0));
+        }
+
+        private @NotNull Entry withFile(@NotNull String file) {
+            return new Entry(hash, file, games, meanScore, medianScore, maxScore, meanLevel, meanTicks);
+        }
+    }
+
+    /**
+     * The contents of the cache file.
+     *
+     * @param conditions the settings the games were played with
+     * @param results the score of each save, by hash
+     */
+    private record Cache(@NotNull String conditions, @NotNull Map<String, Entry> results) {
+    }
+
+    private final @NotNull Path saves;
+    private final @NotNull TournamentEvaluator.Config config;
+    private final int games;
+    private final long seed;
+    private final int parallelism;
+
+    /**
+     * Creates a leaderboard for the saves folder.
+     *
+     * @param saves the folder to search for saves, including subfolders
+     * @param config the settings of every game
+     * @param games the number of games to play with each save
+     * @param seed the seed of the first game, every save plays the same seeds
+     * @param parallelism the number of games to play at the same time
+     */
+    public Leaderboard(@NotNull Path saves, @NotNull TournamentEvaluator.Config config, int games, long seed, int parallelism) {
+        this.saves = saves;
+        this.config = config;
+        this.games = games;
+        this.seed = seed;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the path of the cache file.
+     *
+     * @return the cache file
+     */
+    public @NotNull Path getCacheFile() {
+        return saves.resolve("leaderboard-cache.json");
+    }
+
+    /**
+     * Returns the path of the ranked leaderboard, written by {@link #run()}.
+     *
+     * @return the leaderboard file
+     */
+    public @NotNull Path getOutputFile() {
+        return saves.resolve("leaderboard.txt");
+    }
+
+    /**
+     * Finds every save in the saves folder, sorted by path.
+     *
+     * @return the saves
+     * @throws IOException if the folder can't be read
+     */
+    public @NotNull List<Path> findSaves() throws IOException {
+        try (Stream<Path> files = Files.walk(saves)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(file -> SAVE.matcher(file.getFileName().toString()).matches())
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Scores every save that isn't cached yet, then writes the leaderboard
+     * file, best save first. Saves that fail to load or play (for example,
+     * because they were trained with a different number of inputs) are
+     * skipped.
+     *
+     * @return the score of every save, best first
+     * @throws IOException if the saves folder, the cache, or the leaderboard can't be read or written
+     */
+    public @NotNull List<Entry> run() throws IOException {
+        String conditions = getConditions();
+        Map<String, Entry> results = readCache(conditions);
+
+        List<Entry> entries = new ArrayList<>();
+        for (Path save : findSaves()) {
+            String name = saves.relativize(save).toString().replace('\\', '/');
+            String hash = hash(save);
+
+            Entry entry = results.get(hash);
+            if (entry != null) {
+                System.out.println("Already scored " + name);
+                entries.add(entry.withFile(name));
+                continue;
+            }
+
+            System.out.println("Scoring " + name);
+            TournamentEvaluator evaluator = null;
+            try {
+                evaluator = new TournamentEvaluator(TournamentEvaluator.loadCalculators(save.toFile()), config, parallelism);
+                entry = Entry.of(hash, name, evaluator.run(games, seed));
+            } catch (Exception e) {
+                System.err.println("Could not score " + name + ": " + e.getMessage());
+                e.printStackTrace();
+                continue;
+            } finally {
+                if (evaluator != null)
+                    evaluator.dispose();
+            }
+
+            entries.add(entry);
+            results.put(hash, entry);
+
+            // Save after every file, so an interrupted run doesn't lose its progress
+            writeAtomically(getCacheFile(), MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(new Cache(conditions, results)));
+        }
+
+        entries.sort(Comparator.comparingDouble(Entry::meanScore).thenComparingInt(Entry::medianScore).reversed());
+        writeAtomically(getOutputFile(), format(entries));
+        return entries;
+    }
+
+    private @NotNull String getConditions() {
+        return "levels=" + config.levelsPreset + ", handicap=" + config.handicap + ", lives=" + config.startLives
+            + ", maxTicks=" + config.maxTicks + ", decideOnTileEntry=" + config.decideOnTileEntry
+            + ", games=" + games + ", seed=" + seed;
+    }
+
+    private @NotNull Map<String, Entry> readCache(@NotNull String conditions) {
+        Path file = getCacheFile();
+        if (!Files.exists(file))
+            return new HashMap<>();
+
+        try {
+            Cache cache = MAPPER.readValue(file.toFile(), Cache.class);
+            if (conditions.equals(cache.conditions()))
+                return new HashMap<>(cache.results());
+
+            System.out.println("The tournament settings changed, every save will be scored again");
+        } catch (IOException e) {
+            System.err.println("Could not read the leaderboard cache, every save will be scored again: " + e.getMessage());
+        }
+        return new HashMap<>();
+    }
+
+    private @NotNull String format(@NotNull List<Entry> entries) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# ").append(getConditions()).append(System.lineSeparator());
+        builder.append(String.format("%4s  %10s  %6s  %6s  %5s  %8s  %s%n", "Rank", "Mean score", "Median", "Max", "Level", "Ticks", "File"));
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            builder.append(String.format("%4d  %10.1f  %6d  %6d  %5.2f  %8.0f  %s%n",
+                i + 1, entry.meanScore(), entry.medianScore(), entry.maxScore(), entry.meanLevel(), entry.meanTicks(), entry.file()));
+        }
+        return builder.toString();
+    }
+
+    private static @NotNull String hash(@NotNull Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(Files.readAllBytes(file)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeAtomically(@NotNull Path target, @NotNull String content) throws IOException {
+        AtomicFiles.write(target, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -10,6 +10,22 @@ public class NeatConfig {
 
     public static boolean biasEnabled = true;
 
+    // Compile each network into a generated class instead of using neat4j's calculator
+    public static boolean compileNetworks = true;
+
+    // Skip over the ticks where the maze is frozen (level start, eating a ghost) in 1 update
+    public static boolean fastForward = false;
+
+    // Only evaluate the network when pacman enters a new tile, gets stuck, or a power pellet/ghost changes things
+    public static boolean decideOnTileEntry = false;
+
+    // Checkpoints are written in the background every generation, with every genome every N generations
+    public static int fullCheckpointInterval = 10;
+    // neat4j's save (the one loadFromFile reads) blocks training, so it is only written every N generations
+    public static int neatSaveInterval = 10;
+    // Time each phase of training, and print where the time went after each generation
+    public static boolean metrics = false;
+
     public static int neatInputNodes = 8;
 //    public static int neatInputNodes = 22;
     public static int neatOutputNodes = 6;
@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.cjcrafter.neat.Client;
 import com.cjcrafter.neat.Neat;
+import com.cjcrafter.neat.compute.Calculator;
 import com.cjcrafter.neat.genome.ConnectionGene;
 import com.cjcrafter.neat.genome.NodeGene;
 import com.buaisociety.pacman.util.Disposable;
@@ -19,18 +20,27 @@ import java.util.concurrent.CompletableFuture;
 
 public class PacmanNeatClient implements Disposable {
 
-    private static final @NotNull Texture NODE_TEXTURE = createNodeTexture();
-    private static final @NotNull TextureRegion CONNECTION_TEXTURE = createConnectionTexture();
+    // Loaded the first time a network is rendered, so headless training never needs a GL context
+    private static @Nullable Texture nodeTexture;
+    private static @Nullable TextureRegion connectionTexture;
 
     private final @NotNull Neat neat;
     private final @NotNull Client client;
+    private final @Nullable CompiledNetworks networks;
+    private final int slot;
     private @Nullable GameManager gameManager;
     private @Nullable CompletableFuture<Void> gameCompleteFuture;
     private boolean renderNetwork;
 
     public PacmanNeatClient(@NotNull Neat neat, @NotNull Client client) {
+        this(neat, client, null, -1);
+    }
+
+    public PacmanNeatClient(@NotNull Neat neat, @NotNull Client client, @Nullable CompiledNetworks networks, int slot) {
         this.neat = neat;
         this.client = client;
+        this.networks = networks;
+        this.slot = slot;
     }
 
     public @NotNull Neat getNeat() {
@@ -41,6 +51,15 @@ public class PacmanNeatClient implements Disposable {
         return client;
     }
 
+    /**
+     * Returns the calculator the game uses to evaluate the client's network.
+     *
+     * @return the compiled calculator, or the client's own calculator
+     */
+    public @NotNull Calculator getCalculator() {
+        return networks != null ? networks.get(slot, client) : client.getCalculator();
+    }
+
     public @NotNull GameManager getGameManager() {
         if (gameManager == null)
             throw new IllegalStateException("Game manager not set");
@@ -79,6 +98,11 @@ public class PacmanNeatClient implements Disposable {
      * @param batch the sprite batch to render to
      */
     private void renderNeuralNetwork(@NotNull SpriteBatch batch) {
+        if (nodeTexture == null) {
+            nodeTexture = createNodeTexture();
+            connectionTexture = createConnectionTexture();
+        }
+
         Map<Integer, NodeGene> cache = new HashMap<>();
         for (NodeGene node : client.getGenome().getNodes()) {
             cache.put(node.getId(), node);
@@ -100,9 +124,9 @@ public class PacmanNeatClient implements Disposable {
         float x = node.getPosition().x() * 8 * 28 - nodeSize / 2;
         float y = node.getPosition().y() * 8 * 36 - nodeSize / 2;
 
-        float activation = getClient().getCalculator().getActivation(node.getId());
+        float activation = getCalculator().getActivation(node.getId());
         batch.setColor(activation, activation, activation, 1f);
-        batch.draw(NODE_TEXTURE, x, y, nodeSize, nodeSize);
+        batch.draw(nodeTexture, x, y, nodeSize, nodeSize);
         batch.setColor(Color.WHITE);  // reset tint
     }
 
@@ -122,7 +146,7 @@ public class PacmanNeatClient implements Disposable {
 
         float scale = Math.min(Math.abs(connection.getWeight()), 1f);
         batch.setColor(tint);
-        batch.draw(CONNECTION_TEXTURE, x1, y1, 0, 0.5f, distance, 1f, 1f, scale, angle);
+        batch.draw(connectionTexture, x1, y1, 0, 0.5f, distance, 1f, 1f, scale, angle);
         batch.setColor(Color.WHITE);  // reset tint
     }
 
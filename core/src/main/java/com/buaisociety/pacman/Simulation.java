@@ -0,0 +1,206 @@
+package com.buaisociety.pacman;
+
+import com.buaisociety.pacman.util.Disposable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the game ticks on a separate thread, so the tick rate does not
+ * depend on how fast the window can render.
+ *
+ * <p>The simulation advances in <i>steps</i> of a few ticks at a time. The
+ * render thread only draws between steps (see {@link #frame(Runnable)}), so
+ * it always sees every game at the end of a tick, never halfway through one.
+ * The simulation is stopped while the games are drawn, so the render thread
+ * should only draw the games inside {@link #frame(Runnable)}, and do
+ * everything else (clearing the screen, moving the camera) outside of it.
+ *
+ * <p>There are 2 modes, which can be switched at any time:
+ * <ul>
+ *     <li>Ticks per second: the ticks are paced by the clock, so the games
+ *     run at the same watchable speed no matter how fast the window renders</li>
+ *     <li>{@link #UNLIMITED}: the simulation runs as fast as it can, and the
+ *     window shows whatever state the games are in when it draws</li>
+ * </ul>
+ */
+public class Simulation implements Disposable {
+
+    public static final int UNLIMITED = 0;
+
+    private final @NotNull IntConsumer step;
+    private final int ticksPerStep;
+    private final @NotNull ReentrantLock lock = new ReentrantLock(true);  // fair, so the render thread isn't starved
+    private final @NotNull Object signal = new Object();
+    private final @NotNull Thread thread;
+
+    private volatile int ticksPerSecond;
+    private volatile boolean paused;
+    private volatile boolean running = true;
+    private volatile long ticks;
+    private boolean restartClock;  // guarded by signal
+
+    /**
+     * Creates a simulation and starts its thread.
+     *
+     * @param name the name of the thread
+     * @param step advances the games by the given number of ticks
+     * @param ticksPerSecond the ticks to run per second, or {@link #UNLIMITED}
+     * @param ticksPerStep the most ticks to run before letting the render thread draw
+     */
+    public Simulation(@NotNull String name, @NotNull IntConsumer step, int ticksPerSecond, int ticksPerStep) {
+        if (ticksPerSecond < 0)
+            throw new IllegalArgumentException("ticksPerSecond must be positive or UNLIMITED");
+        if (ticksPerStep <= 0)
+            throw new IllegalArgumentException("ticksPerStep must be positive");
+
+        this.step = step;
+        this.ticksPerStep = ticksPerStep;
+        this.ticksPerSecond = ticksPerSecond;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the number of ticks to run per second.
+     *
+     * @return the ticks per second, or {@link #UNLIMITED}
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Sets the number of ticks to run per second.
+     *
+     * @param ticksPerSecond the ticks per second, or {@link #UNLIMITED}
+     */
+    public void setTicksPerSecond(int ticksPerSecond) {
+        if (ticksPerSecond < 0)
+            throw new IllegalArgumentException("ticksPerSecond must be positive or UNLIMITED");
+
+        synchronized (signal) {
+            this.ticksPerSecond = ticksPerSecond;
+            restartClock = true;
+            signal.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        synchronized (signal) {
+            this.paused = paused;
+            restartClock = true;
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the total number of ticks that have run.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Waits for the current step to finish, and draws the games. The
+     * simulation is stopped while drawing, so <code>render</code> should
+     * only draw the games.
+     *
+     * @param render draws the games
+     */
+    public void frame(@NotNull Runnable render) {
+        lock.lock();
+        try {
+            render.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        long lastTime = System.nanoTime();
+        double dueTicks = 0;  // ticks that should have run by now, but haven't
+
+        while (running) {
+            int count;
+            synchronized (signal) {
+                while (running && paused) {
+                    try {
+                        signal.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running)
+                    return;
+
+                long now = System.nanoTime();
+                if (restartClock) {
+                    restartClock = false;
+                    lastTime = now;
+                    dueTicks = 0;
+                }
+
+                int perSecond = ticksPerSecond;
+                if (perSecond == UNLIMITED) {
+                    count = ticksPerStep;
+                    lastTime = now;
+                } else {
+                    // Don't build a backlog when the simulation is slower than the clock
+                    dueTicks += (now - lastTime) * perSecond / 1_000_000_000.0;
+                    dueTicks = Math.min(dueTicks, Math.max(ticksPerStep, perSecond / 10.0));
+                    lastTime = now;
+
+                    if (dueTicks < 1) {
+                        long nanos = (long) ((1 - dueTicks) * 1_000_000_000.0 / perSecond);
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(signal, Math.max(nanos, 1));
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    count = Math.min((int) dueTicks, ticksPerStep);
+                    dueTicks -= count;
+                }
+            }
+
+            lock.lock();
+            try {
+                step.accept(count);
+                ticks += count;
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stops the simulation, and waits for the current step to finish.
+     */
+    @Override
+    public void dispose() {
+        synchronized (signal) {
+            running = false;
+            signal.notifyAll();
+        }
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,11 +4,10 @@ import com.buaisociety.pacman.entity.EntityType;
 import com.buaisociety.pacman.event.CreateMazeEvent;
 import com.buaisociety.pacman.event.EntityPreSpawnEvent;
 import com.buaisociety.pacman.maze.Maze;
-import com.buaisociety.pacman.maze.TileState;
 import com.buaisociety.pacman.util.EventListener;
 import org.jetbrains.annotations.NotNull;
-import org.joml.Vector2ic;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -38,22 +37,15 @@ public final class SpecialTrainingConditions {
         return event -> {
             Maze maze = event.getMaze();
 
-            // Go through each cell in the maze and try to remove pellets
-            // During training, this is useful since the randomness will help
-            // prevent overfitting
+            // Randomly remove pellets from the maze. During training, this is
+            // useful since the randomness will help prevent overfitting. Each
+            // tile gets 1 random bit, set with a chance of pelletDensity.
             double pelletDensity = ThreadLocalRandom.current().nextDouble();
-            Vector2ic dimensions = maze.getDimensions();
-            for (int x = 0; x < dimensions.x(); x++) {
-                for (int y = 0; y < dimensions.y(); y++) {
-                    TileState tileState = maze.getTile(x, y).getState();
-                    if (tileState != TileState.PELLET && tileState != TileState.POWER_PELLET)
-                        continue;
-
-                    if (ThreadLocalRandom.current().nextDouble() < pelletDensity) {
-                        maze.getTile(x, y).setState(TileState.SPACE);
-                    }
-                }
+            long[] mask = new long[(maze.getLayout().getSize() + Long.SIZE - 1) / Long.SIZE];
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] = randomBits(ThreadLocalRandom.current(), pelletDensity);
             }
+            maze.removePellets(mask);
 
             // Recalculate maze pellets after removing some
             maze.initTiles();
@@ -64,4 +56,24 @@ public final class SpecialTrainingConditions {
             }
         };
     }
+
+    /**
+     * Returns 64 random bits, each set with the given chance (rounded to the
+     * nearest 1/256). Instead of 1 random number per bit, this combines 8
+     * random longs: AND halves the chance of a bit, OR adds half of the rest,
+     * so applying the bits of the chance from least to most significant ends
+     * at the chance itself.
+     */
+    private static long randomBits(@NotNull Random random, double chance) {
+        int p = (int) Math.round(chance * 256);
+        if (p >= 256)
+            return -1L;
+
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            long r = random.nextLong();
+            bits = (p & 1 << i) != 0 ? bits | r : bits & r;
+        }
+        return bits;
+    }
 }
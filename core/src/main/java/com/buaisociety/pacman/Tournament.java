@@ -3,6 +3,7 @@ package com.buaisociety.pacman;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.utils.ScreenUtils;
@@ -12,15 +13,13 @@ import com.buaisociety.pacman.entity.PacmanEntity;
 import com.buaisociety.pacman.entity.behavior.Behavior;
 import com.buaisociety.pacman.entity.behavior.TournamentBehavior;
 import com.buaisociety.pacman.event.EntityPreSpawnEvent;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.util.EventListener;
 import com.buaisociety.pacman.util.EventSystem;
-import com.cjcrafter.neat.compute.SimpleCalculator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 
 /**
  * Hey there! You can use this file to test your best client against the tests
@@ -28,13 +27,15 @@ import java.nio.file.Paths;
  */
 public class Tournament extends ApplicationAdapter {
 
+    private static final int TICKS_PER_SECOND = 240;
+
     private SpriteBatch batch;
     private OrthographicCamera camera;
     private FitViewport viewport;
 
     private final EventSystem events = new EventSystem();
     private GameManager gameManager;
-    private GameLoop gameLoop;
+    private Simulation simulation;
     private GameLoop secondLoop;  // 1 update per second
     private int frames;
     private int fps;
@@ -46,22 +47,19 @@ public class Tournament extends ApplicationAdapter {
      * @return The behavior to submit to the tournament
      */
     public Behavior setupBehavior() {
-        // TODO: Choose your best client here
+        // TODO: Choose your best client here (a .json calculator, or a .genomes file)
         File file = new File("saves" + File.separator + "oct26-80" + File.separator + "best-calculator-63.json");
         if (!file.exists()) {
             System.err.println("Could not find the file: " + file.getAbsolutePath());
             return null;
         }
 
-        String json;
         try {
-            json = new String(Files.readAllBytes(Paths.get(file.getPath())));
+            return new TournamentBehavior(TournamentEvaluator.loadCalculators(file).get());
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
-        SimpleCalculator calculator = SimpleCalculator.fromJson(json);
-        return new TournamentBehavior(calculator);
     }
 
     @Override
@@ -98,8 +96,14 @@ public class Tournament extends ApplicationAdapter {
         gameManager = new GameManager(events, config);
         gameManager.nextLevel();
 
-        gameLoop = new GameLoop(6000);
-        secondLoop = new GameLoop(1000);
+        // Plays at 4x the arcade's 60 ticks per second, press U to run as fast as possible
+        simulation = new Simulation("Tournament", ticks -> {
+            for (int i = 0; i < ticks; i++) {
+                gameManager.update();
+                gameManager.postUpdate();
+            }
+        }, TICKS_PER_SECOND, 10);
+        secondLoop = new GameLoop(1);
 
         // Maximize window
         Graphics.DisplayMode displayMode = Gdx.graphics.getDisplayMode();
@@ -108,19 +112,18 @@ public class Tournament extends ApplicationAdapter {
 
     @Override
     public void render() {
-        if (!gameLoop.update())
-            return;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.U))
+            simulation.setTicksPerSecond(simulation.getTicksPerSecond() == Simulation.UNLIMITED ? TICKS_PER_SECOND : Simulation.UNLIMITED);
 
         frames++;
         fps++;
 
         if (secondLoop.update()) {
-            System.out.println("FPS: " + fps + ", Frames: " + frames);
+            System.out.println("FPS: " + fps + ", Frames: " + frames + ", Ticks: " + simulation.getTicks());
             fps = 0;
         }
 
-        gameManager.update();
-        gameManager.postUpdate();
+        long start = Phase.RENDER.start();
         ScreenUtils.clear(0, 0, 0, 1);
 
         // Apply the viewport and update the camera
@@ -130,8 +133,9 @@ public class Tournament extends ApplicationAdapter {
         batch.setProjectionMatrix(camera.combined);
 
         batch.begin();
-        gameManager.render(batch);
+        simulation.frame(() -> gameManager.render(batch));
         batch.end();
+        Phase.RENDER.stop(start);
     }
 
     @Override
@@ -141,6 +145,7 @@ public class Tournament extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        simulation.dispose();
         batch.dispose();
     }
 }
@@ -0,0 +1,238 @@
+package com.buaisociety.pacman;
+
+import com.buaisociety.pacman.checkpoint.GenomeFile;
+import com.buaisociety.pacman.checkpoint.GenomeSnapshot;
+import com.buaisociety.pacman.compute.NetworkCompiler;
+import com.buaisociety.pacman.entity.EntityType;
+import com.buaisociety.pacman.entity.PacmanEntity;
+import com.buaisociety.pacman.entity.behavior.TileEntryDecision;
+import com.buaisociety.pacman.entity.behavior.TournamentBehavior;
+import com.buaisociety.pacman.event.EntityPreSpawnEvent;
+import com.buaisociety.pacman.util.Disposable;
+import com.buaisociety.pacman.util.EventSystem;
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.NeatImpl;
+import com.cjcrafter.neat.compute.Calculator;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Plays many tournament games with a {@link TournamentBehavior}, as fast as
+ * the CPU allows, without rendering anything.
+ *
+ * <p>Every game uses the same settings as {@link Tournament} (the tournament
+ * levels and handicap), but starts from its own seed, so the frightened
+ * ghosts, fruit and pacman's random moves are different in each game, and
+ * the same seed always plays the same game. Games run in parallel, 1 per
+ * worker at a time, and each worker compiles its own copy of the network
+ * since calculators are not thread-safe.
+ */
+public class TournamentEvaluator implements Disposable {
+
+    /**
+     * The result of 1 game.
+     *
+     * @param seed the seed the game was played with
+     * @param score the final score
+     * @param level the level the game ended on
+     * @param ticks the number of ticks pacman survived
+     */
+    public record Episode(long seed, int score, int level, long ticks) {
+    }
+
+    public static class Config {
+        public @NotNull String levelsPreset = "tournament_levels.json";
+        public int handicap = 8;
+        public int startLives = 2;
+        public long maxTicks = 60 * 60 * 60;  // stop games where pacman never dies after an hour of game time
+        public boolean decideOnTileEntry = false;  // true only evaluates the network when pacman's decision may change, see TileEntryDecision
+    }
+
+    private final @NotNull Supplier<Calculator> calculators;
+    private final @NotNull Config config;
+    private final @NotNull ForkJoinPool pool;
+
+    /**
+     * Creates an evaluator with its own pool of workers.
+     *
+     * @param calculators creates a new calculator for the network being evaluated
+     * @param config the settings of every game
+     * @param parallelism the number of games to play at the same time
+     */
+    public TournamentEvaluator(@NotNull Supplier<Calculator> calculators, @NotNull Config config, int parallelism) {
+        this.calculators = calculators;
+        this.config = config;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Loads a saved network, in any format the {@link Tournament} can load.
+     * Each call to the returned supplier compiles a new calculator.
+     *
+     * @param file a <code>.json</code> calculator, a {@link GenomeFile}, or
+     *             a <code>generation-*.json</code> population saved by neat4j
+     *             (for the last 2, the genome with the highest score is used)
+     * @return the calculator factory
+     * @throws IOException if the file can't be read
+     */
+    public static @NotNull Supplier<Calculator> loadCalculators(@NotNull File file) throws IOException {
+        // Binary saves are memory-mapped, instead of read and parsed as json
+        if (file.getName().endsWith(GenomeFile.EXTENSION)) {
+            GenomeFile genomes = GenomeFile.open(file.toPath());
+            int best = genomes.getBestIndex();
+            if (best == -1)
+                throw new IOException("No genomes in the file: " + file.getAbsolutePath());
+
+            GenomeSnapshot genome = genomes.get(best);
+            boolean bias = genomes.isBias();
+            return () -> NetworkCompiler.compile(genome, bias);
+        }
+
+        String json = Files.readString(file.toPath());
+        if (file.getName().startsWith("generation-")) {
+            // neat4j's saves don't say if they use a bias node, so assume the current setting
+            Client best = null;
+            for (Client client : NeatImpl.fromJson(json).getClients()) {
+                if (best == null || client.getScore() > best.getScore())
+                    best = client;
+            }
+            if (best == null)
+                throw new IOException("No clients in the file: " + file.getAbsolutePath());
+
+            GenomeSnapshot genome = GenomeSnapshot.of(best);
+            return () -> NetworkCompiler.compile(genome, NeatConfig.biasEnabled);
+        }
+
+        return () -> NetworkCompiler.compile(json);
+    }
+
+    /**
+     * Creates an evaluator for a saved network, see {@link #loadCalculators(File)}.
+     *
+     * @param file the saved network
+     * @param config the settings of every game
+     * @param parallelism the number of games to play at the same time
+     * @return the evaluator
+     * @throws IOException if the file can't be read
+     */
+    public static @NotNull TournamentEvaluator load(@NotNull File file, @NotNull Config config, int parallelism) throws IOException {
+        return new TournamentEvaluator(loadCalculators(file), config, parallelism);
+    }
+
+    /**
+     * Plays the given number of games, and blocks until they are done.
+     *
+     * @param episodes the number of games to play
+     * @param seed the seed of the first game, the other games count up from it
+     * @return the result of each game, in order of seed
+     */
+    public @NotNull List<Episode> run(int episodes, long seed) {
+        ThreadLocal<Calculator> workerCalculators = ThreadLocal.withInitial(calculators);
+        List<Callable<Episode>> tasks = new ArrayList<>(episodes);
+        for (int i = 0; i < episodes; i++) {
+            long episodeSeed = seed + i;
+            tasks.add(() -> play(workerCalculators.get(), episodeSeed));
+        }
+
+        List<Episode> results = new ArrayList<>(episodes);
+        for (Future<Episode> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while evaluating", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A game failed", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private @NotNull Episode play(@NotNull Calculator calculator, long seed) {
+        TileEntryDecision decision = config.decideOnTileEntry ? new TileEntryDecision() : null;
+        TournamentBehavior behavior = new TournamentBehavior(calculator, new Random(seed), decision);
+        EventSystem events = new EventSystem();
+        events.registerListener(EntityPreSpawnEvent.class, event -> {
+            if (event.getEntityType() == EntityType.PACMAN)
+                ((PacmanEntity.Config) event.getConfig()).behavior = behavior;
+        });
+
+        GameManager.Config gameConfig = new GameManager.Config();
+        gameConfig.headless = true;
+        gameConfig.fastForward = true;
+        gameConfig.seed = seed;
+        gameConfig.levelsPreset = config.levelsPreset;
+        gameConfig.handicap = config.handicap;
+        gameConfig.startLives = config.startLives;
+
+        GameManager game = new GameManager(events, gameConfig);
+        game.nextLevel();
+        while (game.getExtraLives() >= 0 && game.getTicks() < config.maxTicks) {
+            game.update();
+            game.postUpdate();
+        }
+
+        Episode episode = new Episode(seed, game.getScore(), game.getLevel(), game.getTicks());
+        game.dispose();
+        return episode;
+    }
+
+    /**
+     * Summarizes the results of many games into a table: the score
+     * distribution, the levels reached, and the ticks survived.
+     *
+     * @param episodes the results to summarize
+     * @return the summary
+     */
+    public static @NotNull String report(@NotNull List<Episode> episodes) {
+        if (episodes.isEmpty())
+            return "No games were played\n";
+
+        int[] scores = episodes.stream().mapToInt(Episode::score).sorted().toArray();
+        long[] ticks = episodes.stream().mapToLong(Episode::ticks).sorted().toArray();
+        int maxLevel = episodes.stream().mapToInt(Episode::level).max().orElse(0);
+        int[] levels = new int[maxLevel + 1];
+        for (Episode episode : episodes) {
+            levels[episode.level()]++;
+        }
+
+        double mean = Arrays.stream(scores).average().orElse(0);
+        double variance = Arrays.stream(scores).mapToDouble(score -> (score - mean) * (score - mean)).sum() / scores.length;
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("Games: %d%n", episodes.size()));
+        builder.append(String.format("Score: mean %.1f, std dev %.1f, min %d, p25 %d, median %d, p75 %d, max %d%n",
+            mean, Math.sqrt(variance), scores[0], percentile(scores, 25), percentile(scores, 50), percentile(scores, 75), scores[scores.length - 1]));
+        builder.append(String.format("Ticks: mean %.0f, min %d, median %d, max %d%n",
+            Arrays.stream(ticks).average().orElse(0), ticks[0], ticks[ticks.length / 2], ticks[ticks.length - 1]));
+        builder.append("Level reached:\n");
+        for (int level = 1; level < levels.length; level++) {
+            if (levels[level] == 0)
+                continue;
+            builder.append(String.format("  %3d: %5d games (%.1f%%)%n", level, levels[level], 100.0 * levels[level] / episodes.size()));
+        }
+        return builder.toString();
+    }
+
+    private static int percentile(int @NotNull [] sorted, int percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    @Override
+    public void dispose() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,352 @@
+package com.buaisociety.pacman;
+
+import com.badlogic.gdx.Gdx;
+import com.buaisociety.pacman.checkpoint.CheckpointWriter;
+import com.buaisociety.pacman.entity.EntityType;
+import com.buaisociety.pacman.entity.PacmanEntity;
+import com.buaisociety.pacman.entity.behavior.NeatPacmanBehavior;
+import com.buaisociety.pacman.entity.behavior.TileEntryDecision;
+import com.buaisociety.pacman.event.CreateMazeEvent;
+import com.buaisociety.pacman.event.EntityPreSpawnEvent;
+import com.buaisociety.pacman.event.GameEndEvent;
+import com.buaisociety.pacman.jfr.EvolveEvent;
+import com.buaisociety.pacman.jfr.GenerationEvent;
+import com.buaisociety.pacman.jfr.NeatSaveEvent;
+import com.buaisociety.pacman.metrics.Metrics;
+import com.buaisociety.pacman.metrics.Phase;
+import com.buaisociety.pacman.util.Disposable;
+import com.buaisociety.pacman.util.EventSystem;
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.Neat;
+import com.cjcrafter.neat.NeatImpl;
+import com.cjcrafter.neat.NeatPrinter;
+import com.cjcrafter.neat.NeatSaver;
+import com.cjcrafter.neat.Parameters;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the NEAT training loop, independent of any window or renderer.
+ *
+ * <p>Each call to {@link #update(int)} advances every running game by a
+ * number of ticks, spread across a {@link GameScheduler}.
+ * Once every game has ended, the population is saved, evolved, and a fresh
+ * set of games is started. {@link Main} wraps this class with a window to
+ * watch the best games, while the headless launcher drives it directly.
+ */
+public class Trainer implements Disposable {
+
+    private final @NotNull EventSystem events = new EventSystem();
+    private final @NotNull List<PacmanNeatClient> managers = new ArrayList<>();
+    private final int totalGames = NeatConfig.populationSize;
+    private final boolean headless;
+
+    private boolean USE_TOURNAMENT_SETTINGS = NeatConfig.USE_TOURNAMENT_SETTINGS;
+
+    // deep learning
+    private final @NotNull Neat neat;
+    private final @NotNull NeatPrinter neatPrinter;
+    private final @NotNull NeatSaver neatSaver;
+    private final @NotNull CheckpointWriter checkpoints;
+    private int generation;
+    private @NotNull GenerationEvent generationEvent = new GenerationEvent();
+    private final @NotNull GameScheduler scheduler;
+    private final @NotNull CompiledNetworks networks = new CompiledNetworks(totalGames);
+
+    /**
+     * Creates the NEAT population, and starts the first generation of games.
+     *
+     * @param headless true if the games will never be rendered
+     */
+    public Trainer(boolean headless) {
+        this.headless = headless;
+        Metrics.setEnabled(NeatConfig.metrics);
+        neat = createNeat();
+        neatPrinter = new NeatPrinter(neat);
+        File saveFolder = getSaveFolder();
+        neatSaver = new NeatSaver(neat, saveFolder);
+        checkpoints = new CheckpointWriter(saveFolder, NeatConfig.fullCheckpointInterval, NeatConfig.biasEnabled);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        scheduler = new GameScheduler(Math.max(1, processors - 1));
+        System.out.println("Using " + processors + " threads");
+
+        // When all games have ended, reset
+        events.registerListener(GameEndEvent.class, event -> {
+            int id = event.getGameManager().getConfig().id;
+            managers.get(id).getGameCompleteFuture().complete(null);
+        });
+
+        reset();
+        generationEvent.begin();
+    }
+
+    /**
+     * Returns the event system shared by every game. Each game also has its
+     * own event system (see {@link #createGameEvents(int)}), which passes
+     * every event on to this one.
+     *
+     * @return the shared event system
+     */
+    public @NotNull EventSystem getEvents() {
+        return events;
+    }
+
+    public @NotNull Neat getNeat() {
+        return neat;
+    }
+
+    /**
+     * Returns every game in the current generation, indexed by client id.
+     *
+     * @return an unmodifiable view of the games
+     */
+    public @NotNull List<PacmanNeatClient> getManagers() {
+        return Collections.unmodifiableList(managers);
+    }
+
+    public @NotNull Neat createNeat() {
+        // Change this to true/false as needed, if you want to load from file
+        if (NeatConfig.loadFromFile) {
+            // TODO: Change this to the exact file you want to load
+            File exactFile = new File("saves" + File.separator + NeatConfig.folder + File.separator + NeatConfig.file);
+            // load exactFile contents to string
+            String json;
+            try {
+                json = new String(Files.readAllBytes(Paths.get(exactFile.getPath())));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid file: " + exactFile.getPath());
+            }
+            NeatImpl impl = NeatImpl.fromJson(json);
+            // modify this as needed
+            //impl.updateNodeCounts(8, 4);  // Add 4 new inputs
+            //impl.updateClients(200);  // have 200 pacman games at once
+            return impl;
+        } else {
+            Parameters neatParameters = new Parameters();
+            neatParameters.setMutateWeightChance(NeatConfig.mutateWeightChance);
+            neatParameters.setWeightCoefficient(NeatConfig.weightCoefficient);  // speciate on weight more often
+            neatParameters.setTargetClientsPerSpecies(NeatConfig.targetClientsPerSpecies);  // targeting ~12 clients per species
+            neatParameters.setStagnationLimit(NeatConfig.stagnationLimit);  // lower stagnation limit
+            neatParameters.setUseBiasNode(NeatConfig.biasEnabled);  // use bias node
+            return new NeatImpl(NeatConfig.neatInputNodes, NeatConfig.neatOutputNodes, totalGames, neatParameters);
+        }
+    }
+
+    public @NotNull File getSaveFolder() {
+        // Create the "saves" directory if it doesn't exist
+        File saveFolder = new File("saves");
+        saveFolder.mkdirs();
+
+        // Get the current date formatted as "oct26"
+        LocalDate now = LocalDate.now();
+        String datePart = now.format(DateTimeFormatter.ofPattern("MMMdd")).toLowerCase();
+
+        // Initialize the maximum number found for the current date
+        int maxNumber = 0;
+
+        // List all files in the "saves" directory
+        File[] files = saveFolder.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                // Check if the file name starts with the date pattern
+                if (name.startsWith(datePart + "-")) {
+                    // Extract the number part after the date
+                    String numberPart = name.substring((datePart + "-").length());
+                    try {
+                        int num = Integer.parseInt(numberPart);
+                        if (num > maxNumber) {
+                            maxNumber = num;
+                        }
+                    } catch (NumberFormatException e) {
+                        // Ignore files that don't have a valid number suffix
+                    }
+                }
+            }
+        }
+
+        // The next available number is maxNumber + 1
+        String newFolderName = datePart + "-" + (maxNumber + 1);
+        File newFolder = new File(saveFolder, newFolderName);
+        newFolder.mkdirs();
+
+        System.out.println("Created folder: " + newFolder.getPath());
+        return newFolder;
+    }
+
+    public void reset() {
+        // Textures can only be disposed on the render thread, and reset() is
+        // usually called from the simulation thread
+        List<PacmanNeatClient> oldManagers = new ArrayList<>(managers);
+        Runnable disposeOld = () -> {
+            for (PacmanNeatClient manager : oldManagers) {
+                manager.getGameManager().dispose();
+            }
+        };
+        if (headless || Gdx.app == null)
+            disposeOld.run();
+        else
+            Gdx.app.postRunnable(disposeOld);
+        managers.clear();
+
+        for (int i = 0; i < totalGames; i++) {
+            GameManager.Config config = new GameManager.Config();
+            config.id = i;
+            config.headless = headless;
+            config.fastForward = NeatConfig.fastForward;
+            if(USE_TOURNAMENT_SETTINGS) {
+                config.handicap = 8;
+                config.levelsPreset = "tournament_levels.json";
+            }
+
+            GameManager gameManager = new GameManager(createGameEvents(i), config);
+            gameManager.nextLevel();
+            gameManager.setExtraLives(0);
+
+            PacmanNeatClient neatClient = new PacmanNeatClient(neat, neat.getClients().get(i), NeatConfig.compileNetworks ? networks : null, i);
+            neatClient.setGameManager(gameManager);
+            this.managers.add(neatClient);
+        }
+    }
+
+    /**
+     * Creates the event system of 1 game, with the listeners that only care
+     * about that game. Since each game is only ever updated by 1 thread at a
+     * time, these listeners never run at the same time as each other.
+     *
+     * @param id the id of the game (and its client)
+     * @return the event system of the game
+     */
+    private @NotNull EventSystem createGameEvents(int id) {
+        EventSystem gameEvents = new EventSystem(events);
+
+        // When a new pacman is created, set the behavior
+        gameEvents.registerListener(EntityPreSpawnEvent.class, event -> {
+            if (event.getEntityType() != EntityType.PACMAN)
+                return;
+
+            PacmanEntity.Config config = (PacmanEntity.Config) event.getConfig();
+            config.behavior = new NeatPacmanBehavior(
+                neat.getClients().get(id),
+                NeatConfig.compileNetworks ? networks : null,
+                id,
+                NeatConfig.decideOnTileEntry ? new TileEntryDecision() : null
+            );
+        });
+
+        gameEvents.registerListener(CreateMazeEvent.class, SpecialTrainingConditions.onCreateMaze());
+        gameEvents.registerListener(EntityPreSpawnEvent.class, SpecialTrainingConditions.onEntityPreSpawn());
+        return gameEvents;
+    }
+
+    /**
+     * Returns true once every game in the current generation has ended.
+     *
+     * @return true if the generation is complete
+     */
+    public boolean isGenerationComplete() {
+        return managers.stream().map(PacmanNeatClient::getGameCompleteFuture).allMatch(CompletableFuture::isDone);
+    }
+
+    /**
+     * Advances every running game by 1 tick. When every game has ended, the
+     * population is saved and evolved, and the next generation is started.
+     */
+    public void update() {
+        update(1);
+    }
+
+    /**
+     * Advances every running game by up to the given number of ticks. When
+     * every game has ended, the population is saved and evolved, and the
+     * next generation is started. Games that end stop early, so the next
+     * generation starts on the next call.
+     *
+     * @param ticks the maximum number of ticks to run
+     */
+    public void update(int ticks) {
+        // If all games are complete, reset
+        if (isGenerationComplete()) {
+            endGeneration();
+            reset();
+            System.out.println(neatPrinter.render());
+
+            // neat4j's own save is the only format that can be loaded back
+            // into a population, but it blocks, so only write it sometimes
+            checkpoints.submit(generation, neat.getClients());
+            if (generation % NeatConfig.neatSaveInterval == 0) {
+                long start = Phase.CHECKPOINT.start();
+                NeatSaveEvent saveEvent = new NeatSaveEvent();
+                saveEvent.begin();
+                neatSaver.save();
+                saveEvent.generation = generation;
+                saveEvent.commit();
+                Phase.CHECKPOINT.stop(start);
+            }
+
+            long start = Phase.EVOLVE.start();
+            EvolveEvent evolveEvent = new EvolveEvent();
+            evolveEvent.begin();
+            neat.evolve();
+            evolveEvent.generation = generation;
+            evolveEvent.commit();
+            Phase.EVOLVE.stop(start);
+
+            // The checkpoint of this generation is still being written in the
+            // background, so it shows up in the next report
+            if (Metrics.isEnabled()) {
+                System.out.print(Metrics.report("Metrics for generation " + generation));
+                Metrics.reset();
+            }
+
+            generation++;
+            networks.clear();
+            generationEvent = new GenerationEvent();
+            generationEvent.begin();
+        }
+
+        scheduler.run(managers, ticks);
+    }
+
+    /**
+     * Records the generation that just ended for the flight recorder.
+     */
+    private void endGeneration() {
+        generationEvent.end();
+        if (!generationEvent.shouldCommit())
+            return;
+
+        double bestScore = 0.0;
+        for (Client client : neat.getClients()) {
+            bestScore = Math.max(bestScore, client.getScore());
+        }
+        generationEvent.generation = generation;
+        generationEvent.games = managers.size();
+        generationEvent.bestScore = bestScore;
+        generationEvent.commit();
+    }
+
+    /**
+     * Disposes of the resources. Should be called when the object is deleted.
+     */
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+        checkpoints.dispose();
+        for (PacmanNeatClient manager : managers) {
+            manager.dispose();
+        }
+        managers.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.buaisociety.pacman.checkpoint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes files to a temporary file first and then renames them, so a crash
+ * never leaves a half-written file behind.
+ */
+public final class AtomicFiles {
+
+    /**
+     * Writes the content of a file.
+     */
+    public interface Output {
+        void write(@NotNull OutputStream out) throws IOException;
+    }
+
+    // Prevent instantiation
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes a file through a temporary file next to it, then renames the
+     * temporary file over the target. Falls back to a plain rename on file
+     * systems that can't rename atomically.
+     *
+     * @param target the file to write
+     * @param output writes the content of the file
+     * @throws IOException if the file could not be written
+     */
+    public static void write(@NotNull Path target, @NotNull Output output) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            output.write(out);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.buaisociety.pacman.checkpoint;
+
+import com.buaisociety.pacman.metrics.Phase;
+import com.buaisociety.pacman.util.Disposable;
+import com.cjcrafter.neat.Client;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the population on a background thread, so the next generation can
+ * start while the previous one is being written.
+ *
+ * <p>The caller only pays for copying the genomes ({@link GenomeSnapshot}).
+ * Serializing, compressing and writing happen on the writer thread, 1
+ * checkpoint at a time and in order. Each generation is saved as
+ * <code>checkpoint-&lt;generation&gt;.json.gz</code>:
+ * <ul>
+ *     <li>Every <code>fullInterval</code> generations, a <i>full</i>
+ *     checkpoint holds every genome.</li>
+ *     <li>Every other generation, a <i>delta</i> checkpoint only holds the
+ *     genomes that changed since the previous checkpoint. The population
+ *     can be rebuilt by applying every delta since the last full checkpoint
+ *     in order.</li>
+ * </ul>
+ * Every checkpoint holds the scores of every client, and the best client's
+ * network is also saved as <code>best-calculator-&lt;generation&gt;.json</code>,
+ * in the format read by {@link com.cjcrafter.neat.compute.SimpleCalculator#fromJson(String)}.
+ * See {@link GenomeJson} for reading checkpoints back.
+ *
+ * <p>Files are written to a temporary file first and then renamed, so a
+ * crash never leaves a half-written checkpoint behind.
+ */
+public class CheckpointWriter implements Disposable {
+
+    private final @NotNull File folder;
+    private final int fullInterval;
+    private final boolean bias;
+    private final @NotNull ExecutorService writer;
+
+    // Only used on the writer thread
+    private final @NotNull Map<Integer, GenomeSnapshot> written = new HashMap<>();
+    private int lastFull = -1;
+
+    /**
+     * Creates a writer that saves to the given folder.
+     *
+     * @param folder the folder to write checkpoints to
+     * @param fullInterval the number of generations between full checkpoints
+     * @param bias true if the networks use a bias node
+     */
+    public CheckpointWriter(@NotNull File folder, int fullInterval, boolean bias) {
+        if (fullInterval <= 0)
+            throw new IllegalArgumentException("fullInterval must be positive");
+
+        this.folder = folder;
+        this.fullInterval = fullInterval;
+        this.bias = bias;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Checkpoint Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies the population, and queues it to be written. Must be called
+     * before the population evolves.
+     *
+     * @param generation the generation number, used in the file names
+     * @param clients every client in the population
+     */
+    public void submit(int generation, @NotNull List<Client> clients) {
+        List<GenomeSnapshot> snapshots = new ArrayList<>(clients.size());
+        for (Client client : clients) {
+            snapshots.add(GenomeSnapshot.of(client));
+        }
+
+        writer.execute(() -> {
+            long start = Phase.CHECKPOINT.start();
+            try {
+                write(generation, snapshots);
+            } catch (IOException e) {
+                System.err.println("Failed to write checkpoint " + generation);
+                e.printStackTrace();
+            } finally {
+                Phase.CHECKPOINT.stop(start);
+            }
+        });
+    }
+
+    private void write(int generation, @NotNull List<GenomeSnapshot> snapshots) throws IOException {
+        boolean full = lastFull == -1 || generation - lastFull >= fullInterval;
+        List<GenomeSnapshot> changed = new ArrayList<>();
+        GenomeSnapshot best = null;
+        for (GenomeSnapshot snapshot : snapshots) {
+            GenomeSnapshot previous = written.get(snapshot.id());
+            if (full || previous == null || !previous.sameGenes(snapshot))
+                changed.add(snapshot);
+            if (best == null || snapshot.score() > best.score())
+                best = snapshot;
+        }
+
+        int base = full ? generation : lastFull;
+        AtomicFiles.write(GenomeJson.checkpointFile(folder.toPath(), generation),
+            out -> GenomeJson.writeCheckpoint(out, generation, bias, base, snapshots, changed));
+
+        // Only remember what is on disk, so the delta after a failed write
+        // still holds every genome that changed since the last good one
+        for (GenomeSnapshot snapshot : changed) {
+            written.put(snapshot.id(), snapshot);
+        }
+        if (full)
+            lastFull = generation;
+
+        if (best != null) {
+            GenomeSnapshot bestSnapshot = best;
+            AtomicFiles.write(new File(folder, "best-calculator-" + generation + ".json").toPath(),
+                out -> GenomeJson.writeCalculator(out, bestSnapshot, bias));
+        }
+    }
+
+    /**
+     * Waits for every queued checkpoint to be written, then stops the writer
+     * thread.
+     */
+    @Override
+    public void dispose() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES))
+                System.err.println("Timed out waiting for checkpoints to be written");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
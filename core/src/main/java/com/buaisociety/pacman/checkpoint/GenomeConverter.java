@@ -0,0 +1,91 @@
+package com.buaisociety.pacman.checkpoint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts saves between the json formats and the binary format. The format
+ * of each file is picked from its name:
+ * <ul>
+ *     <li><code>*.genomes</code>: the binary format ({@link GenomeFile})</li>
+ *     <li><code>checkpoint-&lt;generation&gt;.json.gz</code>: a checkpoint,
+ *     rebuilt from the checkpoints before it if it is a delta</li>
+ *     <li><code>*.json</code>: a calculator, holding 1 genome</li>
+ * </ul>
+ *
+ * <p>Usage: <code>GenomeConverter &lt;input&gt; &lt;output&gt;</code>, for
+ * example <code>GenomeConverter saves/oct26-80/checkpoint-63.json.gz saves/oct26-80/generation-63.genomes</code>.
+ * When writing a calculator, the genome with the highest score is used.
+ */
+public final class GenomeConverter {
+
+    private static final @NotNull Pattern CHECKPOINT = Pattern.compile("checkpoint-(\\d+)\\.json\\.gz");
+
+    // Prevent instantiation
+    private GenomeConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: GenomeConverter <input> <output>");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Population population = read(input);
+        write(output, population);
+        System.out.println("Converted " + population.genomes().size() + " genomes from " + input + " to " + output);
+    }
+
+    /**
+     * Reads a save in any of the supported formats.
+     *
+     * @param file the file to read
+     * @return the genomes in the file
+     * @throws IOException if the file can't be read
+     */
+    public static @NotNull Population read(@NotNull Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(GenomeFile.EXTENSION))
+            return GenomeFile.open(file).toPopulation();
+
+        Matcher checkpoint = CHECKPOINT.matcher(name);
+        if (checkpoint.matches())
+            return GenomeJson.readCheckpoints(file.toAbsolutePath().getParent(), Integer.parseInt(checkpoint.group(1)));
+
+        if (name.endsWith(".json"))
+            return GenomeJson.readCalculator(Files.readString(file));
+
+        throw new IOException("Unknown save format: " + file);
+    }
+
+    /**
+     * Writes a save in any of the supported formats.
+     *
+     * @param file the file to write
+     * @param population the genomes to write
+     * @throws IOException if the file can't be written
+     */
+    public static void write(@NotNull Path file, @NotNull Population population) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(GenomeFile.EXTENSION)) {
+            GenomeFile.write(file, population);
+        } else if (name.endsWith(".json.gz")) {
+            GenomeJson.writeCheckpoint(file, population);
+        } else if (name.endsWith(".json")) {
+            GenomeSnapshot best = population.getBest();
+            if (best == null)
+                throw new IOException("No genomes to write");
+            AtomicFiles.write(file, out -> GenomeJson.writeCalculator(out, best, population.bias()));
+        } else {
+            throw new IOException("Unknown save format: " + file);
+        }
+    }
+}
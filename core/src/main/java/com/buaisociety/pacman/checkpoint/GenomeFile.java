@@ -0,0 +1,244 @@
+package com.buaisociety.pacman.checkpoint;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the binary genome format, a compact alternative to the json saves.
+ *
+ * <p>Files are memory-mapped, so opening a file only reads its header.
+ * Each genome is decoded when it is asked for, straight from the mapped
+ * pages into primitive arrays, and the score of a genome can be read
+ * without decoding its genes at all.
+ *
+ * <p>The format (all numbers big-endian):
+ * <pre>
+ * int     magic ("NEAT")
+ * int     version
+ * int     flags (1 = bias node)
+ * int     generation (-1 if unknown)
+ * int     genome count
+ * int[]   offset of each genome from the start of the file
+ * genomes:
+ *   int     client id
+ *   double  score
+ *   int     node count (n)
+ *   int     connection count (c)
+ *   int[n]  node ids, float[n] node x, float[n] node y
+ *   int[c]  from ids, int[c] to ids, float[c] weights, byte[c] enabled
+ * </pre>
+ */
+public final class GenomeFile {
+
+    public static final @NotNull String EXTENSION = ".genomes";
+
+    static final int MAGIC = 0x4E454154;
+    static final int VERSION = 1;
+    private static final int FLAG_BIAS = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    private final @NotNull ByteBuffer buffer;
+    private final boolean bias;
+    private final int generation;
+    private final int size;
+
+    private GenomeFile(@NotNull ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a genome file");
+        int version = buffer.getInt(4);
+        if (version != VERSION)
+            throw new IOException("Unsupported genome file version " + version + ", expected " + VERSION);
+
+        this.bias = (buffer.getInt(8) & FLAG_BIAS) != 0;
+        this.generation = buffer.getInt(12);
+        this.size = buffer.getInt(16);
+        if (size < 0 || HEADER_SIZE + (long) size * Integer.BYTES > buffer.limit())
+            throw new IOException("Genome file is truncated");
+    }
+
+    /**
+     * Memory-maps the given file.
+     *
+     * @param path the file to open
+     * @return the opened file
+     * @throws IOException if the file can't be read, or is not a genome file
+     */
+    public static @NotNull GenomeFile open(@NotNull Path path) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new GenomeFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads genomes that are already in memory.
+     *
+     * @param buffer the bytes of a genome file
+     * @return the opened file
+     * @throws IOException if the bytes are not a genome file
+     */
+    public static @NotNull GenomeFile wrap(@NotNull ByteBuffer buffer) throws IOException {
+        return new GenomeFile(buffer.slice());
+    }
+
+    public boolean isBias() {
+        return bias;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int offsetOf(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Genome " + index + " out of bounds for " + size + " genomes");
+        return buffer.getInt(HEADER_SIZE + index * Integer.BYTES);
+    }
+
+    /**
+     * Returns the score of a genome, without decoding its genes.
+     *
+     * @param index the index of the genome in the file
+     * @return the score
+     */
+    public double getScore(int index) {
+        return buffer.getDouble(offsetOf(index) + Integer.BYTES);
+    }
+
+    /**
+     * Returns the index of the genome with the highest score.
+     *
+     * @return the index of the best genome, or -1 if the file is empty
+     */
+    public int getBestIndex() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best == -1 || getScore(i) > getScore(best))
+                best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Decodes a genome.
+     *
+     * @param index the index of the genome in the file
+     * @return the genome
+     */
+    public @NotNull GenomeSnapshot get(int index) {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        in.position(offsetOf(index));
+
+        int id = in.getInt();
+        double score = in.getDouble();
+        int nodes = in.getInt();
+        int connections = in.getInt();
+
+        int[] nodeIds = new int[nodes];
+        float[] nodeX = new float[nodes];
+        float[] nodeY = new float[nodes];
+        in.asIntBuffer().get(nodeIds);
+        in.position(in.position() + nodes * Integer.BYTES);
+        in.asFloatBuffer().get(nodeX);
+        in.position(in.position() + nodes * Float.BYTES);
+        in.asFloatBuffer().get(nodeY);
+        in.position(in.position() + nodes * Float.BYTES);
+
+        int[] fromIds = new int[connections];
+        int[] toIds = new int[connections];
+        float[] weights = new float[connections];
+        boolean[] enabled = new boolean[connections];
+        in.asIntBuffer().get(fromIds);
+        in.position(in.position() + connections * Integer.BYTES);
+        in.asIntBuffer().get(toIds);
+        in.position(in.position() + connections * Integer.BYTES);
+        in.asFloatBuffer().get(weights);
+        in.position(in.position() + connections * Float.BYTES);
+        for (int i = 0; i < connections; i++) {
+            enabled[i] = in.get() != 0;
+        }
+
+        return new GenomeSnapshot(id, score, nodeIds, nodeX, nodeY, fromIds, toIds, weights, enabled);
+    }
+
+    /**
+     * Decodes every genome in the file.
+     *
+     * @return the population
+     */
+    public @NotNull Population toPopulation() {
+        List<GenomeSnapshot> genomes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            genomes.add(get(i));
+        }
+        return new Population(generation, bias, genomes);
+    }
+
+    /**
+     * Writes the population as a genome file.
+     *
+     * @param path the file to write
+     * @param population the genomes to write
+     * @throws IOException if the file can't be written
+     */
+    public static void write(@NotNull Path path, @NotNull Population population) throws IOException {
+        List<GenomeSnapshot> genomes = population.genomes();
+        AtomicFiles.write(path, stream -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(population.bias() ? FLAG_BIAS : 0);
+            out.writeInt(population.generation());
+            out.writeInt(genomes.size());
+
+            int offset = HEADER_SIZE + genomes.size() * Integer.BYTES;
+            for (GenomeSnapshot genome : genomes) {
+                out.writeInt(offset);
+                offset += sizeOf(genome);
+            }
+
+            for (GenomeSnapshot genome : genomes) {
+                out.writeInt(genome.id());
+                out.writeDouble(genome.score());
+                out.writeInt(genome.getNodeCount());
+                out.writeInt(genome.getConnectionCount());
+                for (int id : genome.nodeIds())
+                    out.writeInt(id);
+                for (float x : genome.nodeX())
+                    out.writeFloat(x);
+                for (float y : genome.nodeY())
+                    out.writeFloat(y);
+                for (int id : genome.fromIds())
+                    out.writeInt(id);
+                for (int id : genome.toIds())
+                    out.writeInt(id);
+                for (float weight : genome.weights())
+                    out.writeFloat(weight);
+                for (boolean enabled : genome.enabled())
+                    out.writeByte(enabled ? 1 : 0);
+            }
+            out.flush();
+        });
+    }
+
+    private static int sizeOf(@NotNull GenomeSnapshot genome) {
+        return Integer.BYTES + Double.BYTES + 2 * Integer.BYTES
+            + genome.getNodeCount() * 3 * Integer.BYTES
+            + genome.getConnectionCount() * (3 * Integer.BYTES + 1);
+    }
+}
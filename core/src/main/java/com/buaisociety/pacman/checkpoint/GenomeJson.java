@@ -0,0 +1,331 @@
+package com.buaisociety.pacman.checkpoint;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes genomes in the json formats:
+ * <ul>
+ *     <li>Calculators, the format of <code>best-calculator-*.json</code>,
+ *     read by {@link com.cjcrafter.neat.compute.SimpleCalculator#fromJson(String)}</li>
+ *     <li>Checkpoints, the <code>checkpoint-*.json.gz</code> files written
+ *     by {@link CheckpointWriter}</li>
+ * </ul>
+ * Together with {@link GenomeFile}, these convert between json and the
+ * binary format.
+ */
+public final class GenomeJson {
+
+    private static final @NotNull ObjectMapper MAPPER = new ObjectMapper();
+    private static final @NotNull JsonFactory JSON = MAPPER.getFactory();
+
+    private record CalculatorNode(int id, float x) {
+    }
+
+    private record CalculatorConnection(int fromId, int toId, float weight, boolean enabled) {
+    }
+
+    // Prevent instantiation
+    private GenomeJson() {
+    }
+
+    /**
+     * Returns the file a checkpoint is saved to.
+     *
+     * @param folder the save folder
+     * @param generation the generation of the checkpoint
+     * @return the checkpoint file
+     */
+    public static @NotNull Path checkpointFile(@NotNull Path folder, int generation) {
+        return folder.resolve("checkpoint-" + generation + ".json.gz");
+    }
+
+    /**
+     * Reads a calculator. Calculators don't store the y-coordinates of the
+     * nodes, the client id or the score, so those are all 0.
+     *
+     * @param json the saved calculator
+     * @return a population with the 1 genome
+     * @throws IOException if the json is not a calculator
+     */
+    public static @NotNull Population readCalculator(@NotNull String json) throws IOException {
+        JsonNode root = MAPPER.readTree(json);
+        if (root == null || !root.has("inputs"))
+            throw new IOException("Not a calculator");
+
+        List<CalculatorNode> nodes = new ArrayList<>();
+        List<CalculatorConnection> connections = new ArrayList<>();
+        for (String group : new String[]{"inputs", "hidden", "outputs"}) {
+            for (JsonNode node : root.get(group)) {
+                int id = node.get("id").asInt();
+                nodes.add(new CalculatorNode(id, node.get("x").floatValue()));
+                for (JsonNode connection : node.get("incoming")) {
+                    connections.add(new CalculatorConnection(connection.get("fromId").asInt(), id,
+                        connection.get("weight").floatValue(), connection.get("enabled").asBoolean()));
+                }
+            }
+        }
+
+        // Sort the genes the same way as GenomeSnapshot.of(Client)
+        nodes.sort(Comparator.comparingInt(CalculatorNode::id));
+        int[] nodeIds = new int[nodes.size()];
+        float[] nodeX = new float[nodes.size()];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = nodes.get(i).id();
+            nodeX[i] = nodes.get(i).x();
+        }
+
+        connections.sort(Comparator.comparingInt(CalculatorConnection::fromId).thenComparingInt(CalculatorConnection::toId));
+        int[] fromIds = new int[connections.size()];
+        int[] toIds = new int[connections.size()];
+        float[] weights = new float[connections.size()];
+        boolean[] enabled = new boolean[connections.size()];
+        for (int i = 0; i < fromIds.length; i++) {
+            CalculatorConnection connection = connections.get(i);
+            fromIds[i] = connection.fromId();
+            toIds[i] = connection.toId();
+            weights[i] = connection.weight();
+            enabled[i] = connection.enabled();
+        }
+
+        GenomeSnapshot genome = new GenomeSnapshot(0, 0, nodeIds, nodeX, new float[nodeIds.length], fromIds, toIds, weights, enabled);
+        return new Population(-1, root.get("isAddBias").asBoolean(), List.of(genome));
+    }
+
+    /**
+     * Writes a genome as a calculator.
+     *
+     * @param genome the genome to write
+     * @param bias true if the network uses a bias node
+     * @return the calculator json
+     */
+    public static @NotNull String toCalculatorJson(@NotNull GenomeSnapshot genome, boolean bias) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeCalculator(out, genome, bias);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a genome as a calculator. The nodes with the smallest
+     * x-coordinate are the inputs, and the nodes with the largest
+     * x-coordinate are the outputs.
+     *
+     * @param out the stream to write to
+     * @param genome the genome to write
+     * @param bias true if the network uses a bias node
+     * @throws IOException if the stream can't be written to
+     */
+    public static void writeCalculator(@NotNull OutputStream out, @NotNull GenomeSnapshot genome, boolean bias) throws IOException {
+        float minX = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        for (float x : genome.nodeX()) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+        }
+
+        try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeBooleanField("isAddBias", bias);
+            writeNodes(json, "inputs", genome, minX, minX);
+            writeNodes(json, "hidden", genome, Math.nextUp(minX), Math.nextDown(maxX));
+            writeNodes(json, "outputs", genome, maxX, maxX);
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeNodes(@NotNull JsonGenerator json, @NotNull String field, @NotNull GenomeSnapshot genome, float fromX, float toX) throws IOException {
+        json.writeArrayFieldStart(field);
+        for (int node = 0; node < genome.getNodeCount(); node++) {
+            float x = genome.nodeX()[node];
+            if (x < fromX || x > toX)
+                continue;
+
+            int id = genome.nodeIds()[node];
+            json.writeStartObject();
+            json.writeNumberField("id", id);
+            json.writeNumberField("x", x);
+            json.writeArrayFieldStart("incoming");
+            for (int i = 0; i < genome.getConnectionCount(); i++) {
+                if (genome.toIds()[i] != id)
+                    continue;
+
+                json.writeStartObject();
+                json.writeNumberField("fromId", genome.fromIds()[i]);
+                json.writeNumberField("weight", genome.weights()[i]);
+                json.writeBooleanField("enabled", genome.enabled()[i]);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Writes a checkpoint, compressed with gzip.
+     *
+     * @param out the stream to write to
+     * @param generation the generation of the checkpoint
+     * @param bias true if the networks use a bias node
+     * @param base the generation of the last full checkpoint (the same as generation for a full checkpoint)
+     * @param genomes every genome in the population, for the scores
+     * @param changed the genomes to write the genes of
+     * @throws IOException if the stream can't be written to
+     */
+    public static void writeCheckpoint(@NotNull OutputStream out, int generation, boolean bias, int base,
+                                       @NotNull List<GenomeSnapshot> genomes, @NotNull List<GenomeSnapshot> changed) throws IOException {
+        try (OutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+             JsonGenerator json = JSON.createGenerator(gzip, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeNumberField("generation", generation);
+            json.writeBooleanField("full", base == generation);
+            json.writeNumberField("base", base);
+            json.writeBooleanField("bias", bias);
+
+            json.writeArrayFieldStart("scores");
+            for (GenomeSnapshot genome : genomes) {
+                json.writeStartArray();
+                json.writeNumber(genome.id());
+                json.writeNumber(genome.score());
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("genomes");
+            for (GenomeSnapshot genome : changed) {
+                json.writeStartObject();
+                json.writeNumberField("id", genome.id());
+
+                json.writeArrayFieldStart("nodes");
+                for (int i = 0; i < genome.getNodeCount(); i++) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", genome.nodeIds()[i]);
+                    json.writeNumberField("x", genome.nodeX()[i]);
+                    json.writeNumberField("y", genome.nodeY()[i]);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+
+                json.writeArrayFieldStart("connections");
+                for (int i = 0; i < genome.getConnectionCount(); i++) {
+                    json.writeStartObject();
+                    json.writeNumberField("fromId", genome.fromIds()[i]);
+                    json.writeNumberField("toId", genome.toIds()[i]);
+                    json.writeNumberField("weight", genome.weights()[i]);
+                    json.writeBooleanField("enabled", genome.enabled()[i]);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * Rebuilds the population of a generation from the checkpoints in a save
+     * folder. If the checkpoint is a delta, the last full checkpoint and every
+     * delta after it are read too.
+     *
+     * @param folder the save folder
+     * @param generation the generation to read
+     * @return the population
+     * @throws IOException if a checkpoint is missing or can't be read
+     */
+    public static @NotNull Population readCheckpoints(@NotNull Path folder, int generation) throws IOException {
+        JsonNode target = readCheckpoint(checkpointFile(folder, generation));
+        int base = target.get("base").asInt();
+
+        Map<Integer, GenomeSnapshot> genes = new HashMap<>();
+        for (int g = base; g < generation; g++) {
+            readGenomes(readCheckpoint(checkpointFile(folder, g)), genes);
+        }
+        readGenomes(target, genes);
+
+        List<GenomeSnapshot> genomes = new ArrayList<>();
+        for (JsonNode score : target.get("scores")) {
+            int id = score.get(0).asInt();
+            GenomeSnapshot genome = genes.get(id);
+            if (genome == null)
+                throw new IOException("Checkpoint " + generation + " has no genes for client " + id);
+
+            genomes.add(new GenomeSnapshot(id, score.get(1).asDouble(), genome.nodeIds(), genome.nodeX(), genome.nodeY(),
+                genome.fromIds(), genome.toIds(), genome.weights(), genome.enabled()));
+        }
+        return new Population(generation, target.get("bias").asBoolean(), genomes);
+    }
+
+    private static @NotNull JsonNode readCheckpoint(@NotNull Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+            return MAPPER.readTree(in);
+        }
+    }
+
+    private static void readGenomes(@NotNull JsonNode checkpoint, @NotNull Map<Integer, GenomeSnapshot> genes) {
+        for (JsonNode genome : checkpoint.get("genomes")) {
+            JsonNode nodes = genome.get("nodes");
+            int[] nodeIds = new int[nodes.size()];
+            float[] nodeX = new float[nodes.size()];
+            float[] nodeY = new float[nodes.size()];
+            for (int i = 0; i < nodeIds.length; i++) {
+                nodeIds[i] = nodes.get(i).get("id").asInt();
+                nodeX[i] = nodes.get(i).get("x").floatValue();
+                nodeY[i] = nodes.get(i).get("y").floatValue();
+            }
+
+            JsonNode connections = genome.get("connections");
+            int[] fromIds = new int[connections.size()];
+            int[] toIds = new int[connections.size()];
+            float[] weights = new float[connections.size()];
+            boolean[] enabled = new boolean[connections.size()];
+            for (int i = 0; i < fromIds.length; i++) {
+                JsonNode connection = connections.get(i);
+                fromIds[i] = connection.get("fromId").asInt();
+                toIds[i] = connection.get("toId").asInt();
+                weights[i] = connection.get("weight").floatValue();
+                enabled[i] = connection.get("enabled").asBoolean();
+            }
+
+            int id = genome.get("id").asInt();
+            genes.put(id, new GenomeSnapshot(id, 0, nodeIds, nodeX, nodeY, fromIds, toIds, weights, enabled));
+        }
+    }
+
+    /**
+     * Writes every genome of the population as a full checkpoint.
+     *
+     * @param file the file to write
+     * @param population the population to write
+     * @throws IOException if the file can't be written
+     */
+    public static void writeCheckpoint(@NotNull Path file, @NotNull Population population) throws IOException {
+        int generation = Math.max(0, population.generation());
+        AtomicFiles.write(file, out -> writeCheckpoint(out, generation, population.bias(), generation, population.genomes(), population.genomes()));
+    }
+}
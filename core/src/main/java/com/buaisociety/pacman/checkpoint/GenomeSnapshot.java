@@ -0,0 +1,102 @@
+package com.buaisociety.pacman.checkpoint;
+
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.genome.ConnectionGene;
+import com.cjcrafter.neat.genome.Genome;
+import com.cjcrafter.neat.genome.NodeGene;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of a client's genome and score, taken so the genome can
+ * be saved on another thread while the population keeps evolving.
+ *
+ * <p>Nodes and connections are stored as parallel arrays. Nodes are sorted
+ * by id, and connections by (from, to), so 2 snapshots of the same genome
+ * are always equal, no matter which order neat4j stores the genes in.
+ *
+ * @param id the id of the client
+ * @param score the score of the client
+ * @param nodeIds the id of each node
+ * @param nodeX the x-coordinate of each node
+ * @param nodeY the y-coordinate of each node
+ * @param fromIds the node each connection comes from
+ * @param toIds the node each connection goes to
+ * @param weights the weight of each connection
+ * @param enabled whether each connection is enabled
+ */
+public record GenomeSnapshot(
+    int id,
+    double score,
+    int @NotNull [] nodeIds,
+    float @NotNull [] nodeX,
+    float @NotNull [] nodeY,
+    int @NotNull [] fromIds,
+    int @NotNull [] toIds,
+    float @NotNull [] weights,
+    boolean @NotNull [] enabled
+) {
+
+    /**
+     * Copies the genome and score of the given client.
+     *
+     * @param client the client to copy
+     * @return the snapshot
+     */
+    public static @NotNull GenomeSnapshot of(@NotNull Client client) {
+        Genome genome = client.getGenome();
+
+        NodeGene[] nodes = genome.getNodes().toArray(new NodeGene[0]);
+        Arrays.sort(nodes, (a, b) -> Integer.compare(a.getId(), b.getId()));
+        int[] nodeIds = new int[nodes.length];
+        float[] nodeX = new float[nodes.length];
+        float[] nodeY = new float[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            nodeIds[i] = nodes[i].getId();
+            nodeX[i] = nodes[i].getPosition().x();
+            nodeY[i] = nodes[i].getPosition().y();
+        }
+
+        ConnectionGene[] connections = genome.getConnections().toArray(new ConnectionGene[0]);
+        Arrays.sort(connections, (a, b) -> a.getFromId() != b.getFromId()
+            ? Integer.compare(a.getFromId(), b.getFromId())
+            : Integer.compare(a.getToId(), b.getToId()));
+        int[] fromIds = new int[connections.length];
+        int[] toIds = new int[connections.length];
+        float[] weights = new float[connections.length];
+        boolean[] enabled = new boolean[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            fromIds[i] = connections[i].getFromId();
+            toIds[i] = connections[i].getToId();
+            weights[i] = connections[i].getWeight();
+            enabled[i] = connections[i].getEnabled();
+        }
+
+        return new GenomeSnapshot(client.getId(), client.getScore(), nodeIds, nodeX, nodeY, fromIds, toIds, weights, enabled);
+    }
+
+    public int getNodeCount() {
+        return nodeIds.length;
+    }
+
+    public int getConnectionCount() {
+        return fromIds.length;
+    }
+
+    /**
+     * Returns true if the genes of both genomes are exactly the same.
+     *
+     * @param other the genome to compare to
+     * @return true if the genes are the same
+     */
+    public boolean sameGenes(@NotNull GenomeSnapshot other) {
+        return Arrays.equals(nodeIds, other.nodeIds)
+            && Arrays.equals(nodeX, other.nodeX)
+            && Arrays.equals(nodeY, other.nodeY)
+            && Arrays.equals(fromIds, other.fromIds)
+            && Arrays.equals(toIds, other.toIds)
+            && Arrays.equals(weights, other.weights)
+            && Arrays.equals(enabled, other.enabled);
+    }
+}
@@ -0,0 +1,30 @@
+package com.buaisociety.pacman.checkpoint;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A saved set of genomes, read from any of the formats in this package.
+ *
+ * @param generation the generation the genomes are from, or -1 if unknown
+ * @param bias true if the networks use a bias node
+ * @param genomes the genomes
+ */
+public record Population(int generation, boolean bias, @NotNull List<GenomeSnapshot> genomes) {
+
+    /**
+     * Returns the genome with the highest score.
+     *
+     * @return the best genome, or null if there are no genomes
+     */
+    public @Nullable GenomeSnapshot getBest() {
+        GenomeSnapshot best = null;
+        for (GenomeSnapshot genome : genomes) {
+            if (best == null || genome.score() > best.score())
+                best = genome;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,83 @@
+package com.buaisociety.pacman.compute;
+
+import com.cjcrafter.neat.compute.Calculator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link Calculator} for 1 specific network, created by
+ * {@link NetworkCompiler}. Disabled connections and nodes that no output
+ * depends on are removed, and the rest of the network is hard-coded into a
+ * generated class.
+ *
+ * <p>Like the calculators from neat4j, instances are not thread-safe. Each
+ * game should use its own calculator.
+ */
+public final class CompiledCalculator implements Calculator {
+
+    /**
+     * Implemented by the generated class of each network.
+     */
+    interface Evaluator {
+        void evaluate(float[] in, float[] out);
+    }
+
+    private final @NotNull NetworkProgram program;  // every node, used for activations
+    private final @NotNull Evaluator evaluator;
+    private final float @NotNull [] values;
+    private float[] lastInputs;
+    private boolean valuesOutdated;
+
+    CompiledCalculator(@NotNull NetworkProgram program, @NotNull Evaluator evaluator) {
+        this.program = program;
+        this.evaluator = evaluator;
+        this.values = new float[program.ids.length];
+    }
+
+    int getInputCount() {
+        return program.getInputCount();
+    }
+
+    @Override
+    public @NotNull CompletableFuture<float[]> calculate(float @NotNull [] inputs) {
+        if (inputs.length != program.getInputCount())
+            throw new IllegalArgumentException("Expected " + program.getInputCount() + " inputs, got " + inputs.length);
+
+        float[] outputs = new float[program.outputs.length];
+        evaluator.evaluate(inputs, outputs);
+        lastInputs = inputs;
+        valuesOutdated = true;
+        return CompletableFuture.completedFuture(outputs);
+    }
+
+    /**
+     * Returns the value of the node with the given id, from the last call to
+     * {@link #calculate(float[])}. The generated class only computes the
+     * outputs, so the values of the other nodes are computed the first time
+     * they are needed (usually only when the network is rendered).
+     *
+     * @param id the id of the node
+     * @return the value of the node, or 0 if the node does not exist
+     */
+    @Override
+    public float getActivation(int id) {
+        if (lastInputs == null)
+            return 0f;
+        if (valuesOutdated) {
+            program.evaluate(lastInputs, values, new float[program.outputs.length]);
+            valuesOutdated = false;
+        }
+
+        int position = program.positionOf(id);
+        return position == -1 ? 0f : values[position];
+    }
+
+    /**
+     * The activation function of every hidden and output node. Called by the
+     * generated classes, so it must stay accessible from this package.
+     */
+    static float sigmoid(float x) {
+        return (float) (1.0 / (1.0 + Math.exp(-x)));
+    }
+}
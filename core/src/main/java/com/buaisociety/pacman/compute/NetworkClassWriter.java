@@ -0,0 +1,277 @@
+package com.buaisociety.pacman.compute;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the class file of a {@link CompiledCalculator.Evaluator} that
+ * evaluates 1 specific network.
+ *
+ * <p>The generated method is straight-line code: every node is a local
+ * variable, every weight is a constant, and there are no loops or branches.
+ * This lets the JIT compile the entire network into a handful of
+ * multiply-adds. Since there are no branches, the class file doesn't need
+ * any stack map frames.
+ */
+final class NetworkClassWriter {
+
+    static final String CLASS_NAME = "com/buaisociety/pacman/compute/GeneratedNetwork";
+
+    private static final String EVALUATOR_NAME = "com/buaisociety/pacman/compute/CompiledCalculator$Evaluator";
+    private static final String CALCULATOR_NAME = "com/buaisociety/pacman/compute/CompiledCalculator";
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    // Opcodes used by the generated code
+    private static final int ICONST_0 = 0x03;
+    private static final int FCONST_0 = 0x0b;
+    private static final int FCONST_1 = 0x0c;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int FLOAD = 0x17;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int FALOAD = 0x30;
+    private static final int FSTORE = 0x38;
+    private static final int FASTORE = 0x51;
+    private static final int FADD = 0x62;
+    private static final int FMUL = 0x6a;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    private final ByteArrayOutputStream constantBytes = new ByteArrayOutputStream();
+    private final DataOutputStream constants = new DataOutputStream(constantBytes);
+    private final Map<Object, Integer> constantIndices = new HashMap<>();
+    private int constantCount = 1;
+
+    private NetworkClassWriter() {
+    }
+
+    /**
+     * Writes the class file for the given network.
+     *
+     * @param program the network to hard-code
+     * @return the class file
+     * @throws IllegalArgumentException if the network is too big for 1 method
+     */
+    static byte @NotNull [] write(@NotNull NetworkProgram program) {
+        try {
+            return new NetworkClassWriter().writeClass(program);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte @NotNull [] writeClass(@NotNull NetworkProgram program) throws IOException {
+        int thisClass = classConstant(CLASS_NAME);
+        int superClass = classConstant("java/lang/Object");
+        int evaluator = classConstant(EVALUATOR_NAME);
+        int objectInit = methodConstant("java/lang/Object", "<init>", "()V");
+        int sigmoid = methodConstant(CALCULATOR_NAME, "sigmoid", "(F)F");
+        int initName = utf8Constant("<init>");
+        int initDescriptor = utf8Constant("()V");
+        int evaluateName = utf8Constant("evaluate");
+        int evaluateDescriptor = utf8Constant("([F[F)V");
+        int codeName = utf8Constant("Code");
+
+        byte[] initCode = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN};
+        byte[] evaluateCode = writeEvaluate(program, sigmoid);
+        if (evaluateCode.length > MAX_CODE_LENGTH || constantCount > 0xFFFF)
+            throw new IllegalArgumentException("Network is too big to compile into 1 method");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);  // minor version
+        out.writeShort(61);  // major version, Java 17
+        out.writeShort(constantCount);
+        constants.flush();
+        constantBytes.writeTo(out);
+        out.writeShort(0x0010 | 0x0020);  // ACC_FINAL | ACC_SUPER
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);  // interfaces
+        out.writeShort(evaluator);
+        out.writeShort(0);  // fields
+        out.writeShort(2);  // methods
+        writeMethod(out, initName, initDescriptor, codeName, 1, 1, initCode);
+        writeMethod(out, evaluateName, evaluateDescriptor, codeName, 4, 3 + program.ids.length, evaluateCode);
+        out.writeShort(0);  // attributes
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(0x0001);  // ACC_PUBLIC
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);  // attributes
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);  // exception table
+        out.writeShort(0);  // attributes
+    }
+
+    /**
+     * Writes <code>void evaluate(float[] in, float[] out)</code>. Local 0 is
+     * <code>this</code>, locals 1 and 2 are the arrays, and node n is stored
+     * in local 3 + n.
+     */
+    private byte @NotNull [] writeEvaluate(@NotNull NetworkProgram program, int sigmoid) {
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        int position = 0;
+        if (program.bias) {
+            code.write(FCONST_1);
+            writeLocal(code, FSTORE, 3 + position++);
+        }
+        for (int i = 0; position < program.inputNodes; i++) {
+            code.write(ALOAD_1);
+            writeInt(code, i);
+            code.write(FALOAD);
+            writeLocal(code, FSTORE, 3 + position++);
+        }
+
+        for (; position < program.ids.length; position++) {
+            int k = position - program.inputNodes;
+            code.write(FCONST_0);
+            for (int connection = program.starts[k]; connection < program.starts[k + 1]; connection++) {
+                writeLocal(code, FLOAD, 3 + program.sources[connection]);
+                writeFloat(code, program.weights[connection]);
+                code.write(FMUL);
+                code.write(FADD);
+            }
+            code.write(INVOKESTATIC);
+            code.write(sigmoid >> 8);
+            code.write(sigmoid);
+            writeLocal(code, FSTORE, 3 + position);
+        }
+
+        for (int i = 0; i < program.outputs.length; i++) {
+            code.write(ALOAD_2);
+            writeInt(code, i);
+            writeLocal(code, FLOAD, 3 + program.outputs[i]);
+            code.write(FASTORE);
+        }
+
+        code.write(RETURN);
+        return code.toByteArray();
+    }
+
+    private static void writeLocal(ByteArrayOutputStream code, int opcode, int local) {
+        if (local < 256) {
+            code.write(opcode);
+            code.write(local);
+        } else {
+            code.write(WIDE);
+            code.write(opcode);
+            code.write(local >> 8);
+            code.write(local);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream code, int value) {
+        if (value <= 5) {
+            code.write(ICONST_0 + value);
+        } else if (value < 128) {
+            code.write(BIPUSH);
+            code.write(value);
+        } else {
+            code.write(SIPUSH);
+            code.write(value >> 8);
+            code.write(value);
+        }
+    }
+
+    private void writeFloat(ByteArrayOutputStream code, float value) {
+        if (Float.floatToRawIntBits(value) == 0) {
+            code.write(FCONST_0);
+            return;
+        }
+
+        int index = floatConstant(value);
+        if (index < 256) {
+            code.write(LDC);
+            code.write(index);
+        } else {
+            code.write(LDC_W);
+            code.write(index >> 8);
+            code.write(index);
+        }
+    }
+
+    private int utf8Constant(@NotNull String value) {
+        Integer existing = constantIndices.get(value);
+        if (existing != null)
+            return existing;
+
+        try {
+            constants.writeByte(1);  // CONSTANT_Utf8
+            constants.writeUTF(value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        constantIndices.put(value, constantCount);
+        return constantCount++;
+    }
+
+    private int classConstant(@NotNull String name) {
+        int nameIndex = utf8Constant(name);
+        try {
+            constants.writeByte(7);  // CONSTANT_Class
+            constants.writeShort(nameIndex);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return constantCount++;
+    }
+
+    private int methodConstant(@NotNull String owner, @NotNull String name, @NotNull String descriptor) {
+        int ownerIndex = classConstant(owner);
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        try {
+            constants.writeByte(12);  // CONSTANT_NameAndType
+            constants.writeShort(nameIndex);
+            constants.writeShort(descriptorIndex);
+            int nameAndType = constantCount++;
+
+            constants.writeByte(10);  // CONSTANT_Methodref
+            constants.writeShort(ownerIndex);
+            constants.writeShort(nameAndType);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return constantCount++;
+    }
+
+    private int floatConstant(float value) {
+        // Keyed by the exact bits, so 0.0 and -0.0 (and every NaN) stay distinct
+        Integer key = Float.floatToRawIntBits(value);
+        Integer existing = constantIndices.get(key);
+        if (existing != null)
+            return existing;
+
+        try {
+            constants.writeByte(4);  // CONSTANT_Float
+            constants.writeInt(key);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        constantIndices.put(key, constantCount);
+        return constantCount++;
+    }
+}
@@ -0,0 +1,195 @@
+package com.buaisociety.pacman.compute;
+
+import com.buaisociety.pacman.checkpoint.GenomeFile;
+import com.buaisociety.pacman.checkpoint.GenomeJson;
+import com.buaisociety.pacman.checkpoint.GenomeSnapshot;
+import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.compute.Calculator;
+import com.cjcrafter.neat.compute.SimpleCalculator;
+import com.cjcrafter.neat.genome.ConnectionGene;
+import com.cjcrafter.neat.genome.Genome;
+import com.cjcrafter.neat.genome.NodeGene;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compiles NEAT networks into {@link CompiledCalculator}s, which can be used
+ * anywhere a neat4j {@link Calculator} is used.
+ *
+ * <p>Every compiled network is checked against the calculator it replaces
+ * on a few random inputs. If the outputs don't match (or the network can't
+ * be compiled), the original calculator is returned instead, so compiling
+ * never changes what a network does.
+ */
+public final class NetworkCompiler {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int VERIFY_SAMPLES = 8;
+    private static final float VERIFY_TOLERANCE = 1e-4f;
+
+    private static volatile boolean warned;
+
+    // Prevent instantiation
+    private NetworkCompiler() {
+    }
+
+    /**
+     * Compiles the current network of the given client.
+     *
+     * @param client the client to compile the network of
+     * @param bias true if the population uses a bias node
+     * @return the compiled calculator, or the client's own calculator if compiling failed
+     */
+    public static @NotNull Calculator compile(@NotNull Client client, boolean bias) {
+        Calculator reference = client.getCalculator();
+        try {
+            return verify(compile(fromGenome(client.getGenome(), bias)), reference);
+        } catch (RuntimeException e) {
+            warn(String.valueOf(e.getMessage()));
+            return reference;
+        }
+    }
+
+    /**
+     * Compiles a calculator saved as json, the same format read by
+     * {@link SimpleCalculator#fromJson(String)}.
+     *
+     * @param json the saved calculator
+     * @return the compiled calculator, or a {@link SimpleCalculator} if compiling failed
+     */
+    public static @NotNull Calculator compile(@NotNull String json) {
+        Calculator reference = SimpleCalculator.fromJson(json);
+        try {
+            return verify(compile(fromJson(json)), reference);
+        } catch (RuntimeException e) {
+            warn(String.valueOf(e.getMessage()));
+            return reference;
+        }
+    }
+
+    /**
+     * Compiles a saved genome, like one read from a {@link GenomeFile}.
+     *
+     * @param genome the genome to compile
+     * @param bias true if the network uses a bias node
+     * @return the compiled calculator, or a {@link SimpleCalculator} if compiling failed
+     */
+    public static @NotNull Calculator compile(@NotNull GenomeSnapshot genome, boolean bias) {
+        Calculator reference = SimpleCalculator.fromJson(GenomeJson.toCalculatorJson(genome, bias));
+        try {
+            return verify(compile(fromSnapshot(genome, bias)), reference);
+        } catch (RuntimeException e) {
+            warn(String.valueOf(e.getMessage()));
+            return reference;
+        }
+    }
+
+    static @NotNull CompiledCalculator compile(@NotNull NetworkProgram program) {
+        NetworkProgram pruned = program.prune();
+        CompiledCalculator.Evaluator evaluator;
+        try {
+            byte[] bytes = NetworkClassWriter.write(pruned);
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            evaluator = (CompiledCalculator.Evaluator) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            // Too big for 1 method, fall back to evaluating the flattened arrays
+            float[] values = new float[pruned.ids.length];
+            evaluator = (in, out) -> pruned.evaluate(in, values, out);
+        }
+        return new CompiledCalculator(program, evaluator);
+    }
+
+    private static @NotNull Calculator verify(@NotNull CompiledCalculator compiled, @NotNull Calculator reference) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int sample = 0; sample < VERIFY_SAMPLES; sample++) {
+            float[] inputs = new float[compiled.getInputCount()];
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = random.nextFloat() * 2f - 1f;
+            }
+
+            float[] expected = reference.calculate(inputs).join();
+            float[] actual = compiled.calculate(inputs).join();
+            if (expected.length != actual.length)
+                throw new IllegalArgumentException("Compiled network has " + actual.length + " outputs, expected " + expected.length);
+            for (int i = 0; i < actual.length; i++) {
+                if (Math.abs(expected[i] - actual[i]) > VERIFY_TOLERANCE)
+                    throw new IllegalArgumentException("Compiled network output " + i + " was " + actual[i] + ", expected " + expected[i]);
+            }
+        }
+        return compiled;
+    }
+
+    private static void warn(@NotNull String message) {
+        if (warned)
+            return;
+
+        warned = true;
+        System.err.println("Could not compile network, using the neat4j calculator instead: " + message);
+    }
+
+    private static @NotNull NetworkProgram fromGenome(@NotNull Genome genome, boolean bias) {
+        Map<Integer, List<NetworkProgram.Connection>> incoming = new HashMap<>();
+        for (ConnectionGene connection : genome.getConnections()) {
+            if (!connection.getEnabled())
+                continue;
+
+            incoming.computeIfAbsent(connection.getToId(), k -> new ArrayList<>())
+                .add(new NetworkProgram.Connection(connection.getFromId(), connection.getWeight()));
+        }
+
+        List<NetworkProgram.Node> nodes = new ArrayList<>();
+        for (NodeGene node : genome.getNodes()) {
+            nodes.add(new NetworkProgram.Node(node.getId(), node.getPosition().x(), incoming.getOrDefault(node.getId(), List.of())));
+        }
+        return NetworkProgram.build(nodes, bias);
+    }
+
+    private static @NotNull NetworkProgram fromSnapshot(@NotNull GenomeSnapshot genome, boolean bias) {
+        Map<Integer, List<NetworkProgram.Connection>> incoming = new HashMap<>();
+        for (int i = 0; i < genome.getConnectionCount(); i++) {
+            if (!genome.enabled()[i])
+                continue;
+
+            incoming.computeIfAbsent(genome.toIds()[i], k -> new ArrayList<>())
+                .add(new NetworkProgram.Connection(genome.fromIds()[i], genome.weights()[i]));
+        }
+
+        List<NetworkProgram.Node> nodes = new ArrayList<>();
+        for (int i = 0; i < genome.getNodeCount(); i++) {
+            int id = genome.nodeIds()[i];
+            nodes.add(new NetworkProgram.Node(id, genome.nodeX()[i], incoming.getOrDefault(id, List.of())));
+        }
+        return NetworkProgram.build(nodes, bias);
+    }
+
+    private static @NotNull NetworkProgram fromJson(@NotNull String json) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid calculator json", e);
+        }
+
+        List<NetworkProgram.Node> nodes = new ArrayList<>();
+        for (String group : new String[]{"inputs", "hidden", "outputs"}) {
+            for (JsonNode node : root.get(group)) {
+                List<NetworkProgram.Connection> incoming = new ArrayList<>();
+                for (JsonNode connection : node.get("incoming")) {
+                    if (connection.get("enabled").asBoolean())
+                        incoming.add(new NetworkProgram.Connection(connection.get("fromId").asInt(), connection.get("weight").floatValue()));
+                }
+                nodes.add(new NetworkProgram.Node(node.get("id").asInt(), node.get("x").floatValue(), incoming));
+            }
+        }
+        return NetworkProgram.build(nodes, root.get("isAddBias").asBoolean());
+    }
+}
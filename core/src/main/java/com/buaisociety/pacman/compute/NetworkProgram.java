@@ -0,0 +1,256 @@
+package com.buaisociety.pacman.compute;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A neural network flattened into primitive arrays, with every node in the
+ * order it has to be evaluated in.
+ *
+ * <p>Nodes are referred to by their <i>position</i> in that order. Input
+ * nodes come first (with the bias node first, if there is one), followed by
+ * the hidden nodes sorted by their x-coordinate, followed by the output
+ * nodes. Every connection goes from an earlier position to a later one, so
+ * evaluating the nodes in order never reads a node before it is computed.
+ */
+final class NetworkProgram {
+
+    final int[] ids;  // position -> node id
+    final boolean bias;
+    final int inputNodes;  // number of input nodes, including the bias node
+    final int[] starts;  // (position - inputNodes) -> index of the first incoming connection
+    final int[] sources;  // connection -> position of the node it comes from
+    final float[] weights;  // connection -> weight
+    final int[] outputs;  // output index -> position
+
+    private NetworkProgram(int[] ids, boolean bias, int inputNodes, int[] starts, int[] sources, float[] weights, int[] outputs) {
+        this.ids = ids;
+        this.bias = bias;
+        this.inputNodes = inputNodes;
+        this.starts = starts;
+        this.sources = sources;
+        this.weights = weights;
+        this.outputs = outputs;
+    }
+
+    /**
+     * A node of the network being built. Disabled connections should not be
+     * included.
+     */
+    record Node(int id, float x, @NotNull List<Connection> incoming) {
+    }
+
+    record Connection(int fromId, float weight) {
+    }
+
+    /**
+     * Flattens the given nodes. The nodes with the smallest x-coordinate are
+     * the inputs, and the nodes with the largest x-coordinate are the
+     * outputs, both sorted by id.
+     *
+     * @param nodes every node of the network
+     * @param bias true if the first input node is a bias node, always 1
+     * @return the flattened network
+     * @throws IllegalArgumentException if a connection does not go forwards
+     */
+    static @NotNull NetworkProgram build(@NotNull List<Node> nodes, boolean bias) {
+        if (nodes.isEmpty())
+            throw new IllegalArgumentException("Network has no nodes");
+
+        float minX = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        for (Node node : nodes) {
+            minX = Math.min(minX, node.x());
+            maxX = Math.max(maxX, node.x());
+        }
+        if (minX == maxX)
+            throw new IllegalArgumentException("Network has no output nodes");
+
+        List<Node> inputs = new ArrayList<>();
+        List<Node> computed = new ArrayList<>();
+        for (Node node : nodes) {
+            (node.x() == minX ? inputs : computed).add(node);
+        }
+        inputs.sort(Comparator.comparingInt(Node::id));
+        computed.sort(Comparator.comparingDouble(Node::x).thenComparingInt(Node::id));
+
+        int[] ids = new int[nodes.size()];
+        Map<Integer, Integer> positions = new HashMap<>();
+        int position = 0;
+        for (Node node : inputs) {
+            positions.put(node.id(), position);
+            ids[position++] = node.id();
+        }
+        for (Node node : computed) {
+            positions.put(node.id(), position);
+            ids[position++] = node.id();
+        }
+
+        int connectionCount = 0;
+        for (Node node : computed) {
+            connectionCount += node.incoming().size();
+        }
+
+        int[] starts = new int[computed.size() + 1];
+        int[] sources = new int[connectionCount];
+        float[] weights = new float[connectionCount];
+        int outputCount = 0;
+        for (Node node : computed) {
+            if (node.x() == maxX)
+                outputCount++;
+        }
+
+        int[] outputs = new int[outputCount];
+        int connection = 0;
+        int output = 0;
+        for (int i = 0; i < computed.size(); i++) {
+            Node node = computed.get(i);
+            int to = inputs.size() + i;
+            starts[i] = connection;
+            for (Connection incoming : node.incoming()) {
+                Integer from = positions.get(incoming.fromId());
+                if (from == null)
+                    throw new IllegalArgumentException("Connection from unknown node " + incoming.fromId());
+                if (from >= to)
+                    throw new IllegalArgumentException("Connection from " + incoming.fromId() + " to " + node.id() + " does not go forwards");
+
+                sources[connection] = from;
+                weights[connection++] = incoming.weight();
+            }
+            if (node.x() == maxX)
+                outputs[output++] = to;
+        }
+        starts[computed.size()] = connection;
+
+        return new NetworkProgram(ids, bias, inputs.size(), starts, sources, weights, outputs);
+    }
+
+    /**
+     * Returns a copy of this network without the nodes that no output
+     * depends on. Input nodes are always kept, so the inputs don't move.
+     *
+     * @return the pruned network
+     */
+    @NotNull NetworkProgram prune() {
+        boolean[] used = new boolean[ids.length];
+        Arrays.fill(used, 0, inputNodes, true);
+        for (int output : outputs) {
+            used[output] = true;
+        }
+
+        // Every connection goes forwards, so a single backwards pass finds
+        // every node an output depends on
+        for (int position = ids.length - 1; position >= inputNodes; position--) {
+            if (!used[position])
+                continue;
+
+            int k = position - inputNodes;
+            for (int connection = starts[k]; connection < starts[k + 1]; connection++) {
+                used[sources[connection]] = true;
+            }
+        }
+
+        int[] remap = new int[ids.length];
+        int count = 0;
+        for (int position = 0; position < ids.length; position++) {
+            remap[position] = used[position] ? count++ : -1;
+        }
+
+        int[] newIds = new int[count];
+        int[] newStarts = new int[count - inputNodes + 1];
+        int connectionCount = 0;
+        for (int position = 0; position < ids.length; position++) {
+            if (!used[position])
+                continue;
+
+            newIds[remap[position]] = ids[position];
+            if (position >= inputNodes) {
+                int k = position - inputNodes;
+                newStarts[remap[position] - inputNodes] = connectionCount;
+                connectionCount += starts[k + 1] - starts[k];
+            }
+        }
+        newStarts[count - inputNodes] = connectionCount;
+
+        int[] newSources = new int[connectionCount];
+        float[] newWeights = new float[connectionCount];
+        int connection = 0;
+        for (int position = inputNodes; position < ids.length; position++) {
+            if (!used[position])
+                continue;
+
+            int k = position - inputNodes;
+            for (int i = starts[k]; i < starts[k + 1]; i++) {
+                newSources[connection] = remap[sources[i]];
+                newWeights[connection++] = weights[i];
+            }
+        }
+
+        int[] newOutputs = new int[outputs.length];
+        for (int i = 0; i < outputs.length; i++) {
+            newOutputs[i] = remap[outputs[i]];
+        }
+
+        return new NetworkProgram(newIds, bias, inputNodes, newStarts, newSources, newWeights, newOutputs);
+    }
+
+    /**
+     * Returns the number of inputs the network expects, not counting the
+     * bias node.
+     *
+     * @return the number of inputs
+     */
+    int getInputCount() {
+        return bias ? inputNodes - 1 : inputNodes;
+    }
+
+    /**
+     * Returns the position of the node with the given id.
+     *
+     * @param id the id of the node
+     * @return the position, or -1 if the network has no such node
+     */
+    int positionOf(int id) {
+        for (int position = 0; position < ids.length; position++) {
+            if (ids[position] == id)
+                return position;
+        }
+        return -1;
+    }
+
+    /**
+     * Evaluates every node of the network.
+     *
+     * @param inputs the inputs, not including the bias
+     * @param values filled with the value of each node, by position
+     * @param out filled with the outputs
+     */
+    void evaluate(float @NotNull [] inputs, float @NotNull [] values, float @NotNull [] out) {
+        if (inputs.length != getInputCount())
+            throw new IllegalArgumentException("Expected " + getInputCount() + " inputs, got " + inputs.length);
+
+        int offset = 0;
+        if (bias)
+            values[offset++] = 1f;
+        System.arraycopy(inputs, 0, values, offset, inputs.length);
+
+        for (int position = inputNodes; position < ids.length; position++) {
+            int k = position - inputNodes;
+            float sum = 0f;
+            for (int connection = starts[k]; connection < starts[k + 1]; connection++) {
+                sum += values[sources[connection]] * weights[connection];
+            }
+            values[position] = CompiledCalculator.sigmoid(sum);
+        }
+
+        for (int i = 0; i < outputs.length; i++) {
+            out[i] = values[outputs[i]];
+        }
+    }
+}
@@ -52,15 +52,74 @@ public abstract class Entity implements Disposable {
         return new Vector2d(position);
     }
 
+    /**
+     * Returns the x-coordinate of {@link #getPosition()}, without copying
+     * the position.
+     *
+     * @return the x-coordinate, in pixels.
+     */
+    public double getX() {
+        return position.x();
+    }
+
+    /**
+     * Returns the y-coordinate of {@link #getPosition()}, without copying
+     * the position.
+     *
+     * @return the y-coordinate, in pixels.
+     */
+    public double getY() {
+        return position.y();
+    }
+
     public void setPosition(@NotNull Vector2dc position) {
+        setPosition(position.x(), position.y());
+    }
+
+    /**
+     * Same as {@link #setPosition(Vector2dc)}, without needing a vector.
+     *
+     * @param x the x-coordinate, in pixels.
+     * @param y the y-coordinate, in pixels.
+     */
+    public void setPosition(double x, double y) {
         ((Vector2d) this.lastPosition).set(this.position);
-        ((Vector2d) this.position).set(position);
+        ((Vector2d) this.position).set(x, y);
     }
 
     public @NotNull Vector2i getTilePosition() {
         return maze.toTileCoords(position);
     }
 
+    /**
+     * Returns the x-coordinate of {@link #getTilePosition()}, without
+     * allocating a vector. Used by code that runs every tick.
+     *
+     * @return the x-coordinate of the tile the entity is on.
+     */
+    public int getTileX() {
+        return (int) position.x() / Maze.TILE_SIZE;
+    }
+
+    /**
+     * Returns the y-coordinate of {@link #getTilePosition()}, without
+     * allocating a vector. Used by code that runs every tick.
+     *
+     * @return the y-coordinate of the tile the entity is on.
+     */
+    public int getTileY() {
+        return (int) position.y() / Maze.TILE_SIZE;
+    }
+
+    /**
+     * Returns the tile the entity is on.
+     *
+     * @return the current tile.
+     */
+    public @NotNull Tile getTile() {
+        return maze.getTile(getTileX(), getTileY());
+    }
+
     public @NotNull Vector2i getSpawnTile() {
         return spawnTile;
     }
@@ -114,16 +173,17 @@ public abstract class Entity implements Disposable {
      * @return true if the entity can move in the given direction.
      */
     public boolean canMove(@NotNull Direction direction) {
-        Tile current = maze.getTile(getTilePosition());
-        Tile next = current.getNeighbor(direction);
+        int tileX = getTileX();
+        int tileY = getTileY();
 
         // When the next tile is not passable, the only case we can move forward
         // in that direction is when we still have some space to move in the
         // current tile (in pixel coordinates).
-        if (!next.getState().isPassable()) {
-            Vector2i currentPixel = new Vector2i((int) position.x(), (int) position.y());
-            Vector2i toCenter = current.getCenterPixel().sub(currentPixel);
-            int dot = toCenter.x * direction.getDx() + toCenter.y * direction.getDy();
+        if (!maze.isPassable(tileX + direction.getDx(), tileY + direction.getDy())) {
+            Tile current = maze.getTile(tileX, tileY);
+            int toCenterX = current.getCenterX() - (int) position.x();
+            int toCenterY = current.getCenterY() - (int) position.y();
+            int dot = toCenterX * direction.getDx() + toCenterY * direction.getDy();
 
             return Math.abs(dot) > 0;
         }
@@ -132,31 +192,32 @@ public abstract class Entity implements Disposable {
     }
 
     public void move(@NotNull Direction direction, double speed, boolean fixCenter) {
-        Vector2d position = getPosition();
+        double x = position.x();
+        double y = position.y();
 
-        Tile currentTile = maze.getTile(getTilePosition());
-        Tile nextTile = currentTile.getNeighbor(direction);
+        int tileX = getTileX();
+        int tileY = getTileY();
+        Tile currentTile = maze.getTile(tileX, tileY);
 
         // To prevent overshooting, we should move towards the center of the current tile
-        if (!nextTile.getState().isPassable() && this instanceof PacmanEntity) {
-            Vector2i center = currentTile.getCenterPixel();
-            position.x = NumberUtil.moveTowards(position.x(), center.x(), speed);
-            position.y = NumberUtil.moveTowards(position.y(), center.y(), speed);
+        if (!maze.isPassable(tileX + direction.getDx(), tileY + direction.getDy()) && this instanceof PacmanEntity) {
+            x = NumberUtil.moveTowards(x, currentTile.getCenterX(), speed);
+            y = NumberUtil.moveTowards(y, currentTile.getCenterY(), speed);
         } else {
-            position.add(speed * direction.getDx(), speed * direction.getDy());
+            x += speed * direction.getDx();
+            y += speed * direction.getDy();
         }
 
         if (fixCenter) {
-            Vector2i center = currentTile.getCenterPixel();
             if (direction.isHorizontal()) {
-                position.y = NumberUtil.moveTowards(position.y(), center.y(), speed);
+                y = NumberUtil.moveTowards(y, currentTile.getCenterY(), speed);
             } else {
-                position.x = NumberUtil.moveTowards(position.x(), center.x(), speed);
+                x = NumberUtil.moveTowards(x, currentTile.getCenterX(), speed);
             }
         }
 
         // When going through a tunnel, we need to wrap around the maze.
-        setPosition(maze.getWrappedPosition(position));
+        setPosition(maze.wrapX(x), maze.wrapY(y));
     }
 
     /**
@@ -9,6 +9,7 @@ import com.buaisociety.pacman.sprite.CutoutSpriteSheet;
 import com.buaisociety.pacman.sprite.GrayscaleSpriteSheet;
 import com.buaisociety.pacman.sprite.Particle;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2d;
 import org.joml.Vector2i;
 
@@ -16,11 +17,12 @@ import java.util.concurrent.ThreadLocalRandom;
 
 public class FruitEntity extends Entity {
 
-    public static @NotNull CutoutSpriteSheet fruitSpriteShare = new CutoutSpriteSheet(new Texture("sprites/fruit-sprite.png"), 16);
-    public static @NotNull GrayscaleSpriteSheet bonusSpriteShare = new GrayscaleSpriteSheet(new Texture("sprites/bonus-points-sprite.png"), new Vector2i(8 * 4, 8 * 2));
+    // Shared between all fruits, loaded the first time a fruit is rendered
+    private static @Nullable CutoutSpriteSheet fruitSpriteShare;
+    private static @Nullable GrayscaleSpriteSheet bonusSpriteShare;
 
-    private final @NotNull CutoutSpriteSheet fruitSprite;
-    private final @NotNull GrayscaleSpriteSheet bonusSprite;
+    private final @Nullable CutoutSpriteSheet fruitSprite;
+    private final @Nullable GrayscaleSpriteSheet bonusSprite;
     private final int fruitTileX;
     private int ticksLeft;
     private boolean isRemove;
@@ -45,6 +47,18 @@ public class FruitEntity extends Entity {
         this.ticksLeft = config.ticksLeft;
     }
 
+    public static synchronized @NotNull CutoutSpriteSheet getFruitSpriteShare() {
+        if (fruitSpriteShare == null)
+            fruitSpriteShare = new CutoutSpriteSheet(new Texture("sprites/fruit-sprite.png"), 16);
+        return fruitSpriteShare;
+    }
+
+    public static synchronized @NotNull GrayscaleSpriteSheet getBonusSpriteShare() {
+        if (bonusSpriteShare == null)
+            bonusSpriteShare = new GrayscaleSpriteSheet(new Texture("sprites/bonus-points-sprite.png"), new Vector2i(8 * 4, 8 * 2));
+        return bonusSpriteShare;
+    }
+
     /**
      * Returns true if the entity should be removed from the game (permanent death).
      *
@@ -90,8 +104,8 @@ public class FruitEntity extends Entity {
             isRemove = true;
         }
 
-        Vector2i pacmanTile = maze.getPacman().getTilePosition();
-        if (pacmanTile.equals(getTilePosition())) {
+        PacmanEntity pacman = maze.getPacman();
+        if (pacman.getTileX() == getTileX() && pacman.getTileY() == getTileY()) {
             isRemove = true;
 
             int score = switch (maze.getLevelManager().getLevel()) {
@@ -117,8 +131,14 @@ public class FruitEntity extends Entity {
             };
 
             maze.getLevelManager().incrementScore(score);
+
+            // Particles are only visual, so headless games skip them entirely
+            if (maze.getLevelManager().getConfig().headless)
+                return;
+
+            GrayscaleSpriteSheet bonusSprite = this.bonusSprite;
             Particle particle = new Particle(
-                bonusSprite,
+                bonusSprite != null ? () -> bonusSprite : FruitEntity::getBonusSpriteShare,
                 new Vector2i(spriteX, 0),
                 new Color[]{ Color.CLEAR, new Color(0xffb7ffff) }
             );
@@ -135,6 +155,7 @@ public class FruitEntity extends Entity {
      */
     @Override
     public void render(@NotNull SpriteBatch batch) {
+        CutoutSpriteSheet fruitSprite = this.fruitSprite != null ? this.fruitSprite : getFruitSpriteShare();
         int pixelX = (int) position.x() - fruitSprite.getTileSize().x() / 2 + 1;
         int pixelY = (int) position.y() - fruitSprite.getTileSize().y() / 2 + 1;
         fruitSprite.setCurrentTile(fruitTileX, 0);
@@ -146,17 +167,17 @@ public class FruitEntity extends Entity {
      */
     @Override
     public void dispose() {
-        if (fruitSprite != fruitSpriteShare)
+        if (fruitSprite != null)
             fruitSprite.dispose();
-        if (bonusSprite != bonusSpriteShare)
+        if (bonusSprite != null)
             bonusSprite.dispose();
     }
 
 
     public static class Config {
         public @NotNull Vector2d spawnPixel = new Vector2d();
-        public @NotNull CutoutSpriteSheet fruitSprite = fruitSpriteShare;
-        public @NotNull GrayscaleSpriteSheet bonusSprite = bonusSpriteShare;
+        public @Nullable CutoutSpriteSheet fruitSprite = null;  // null means use the shared sprite
+        public @Nullable GrayscaleSpriteSheet bonusSprite = null;  // null means use the shared sprite
         public int ticksLeft = ThreadLocalRandom.current().nextInt(9 * 60, 10 * 60);
     }
 }
@@ -10,6 +10,7 @@ import com.buaisociety.pacman.entity.behavior.StaticTargetBehavior;
 import com.buaisociety.pacman.maze.Maze;
 import com.buaisociety.pacman.maze.Tile;
 import com.buaisociety.pacman.maze.TileState;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.sprite.GrayscaleSpriteSheet;
 import com.buaisociety.pacman.util.NumberUtil;
 import org.jetbrains.annotations.NotNull;
@@ -23,7 +24,7 @@ public class GhostEntity extends Entity {
         20, 30, 40, 40, 40, 50, 50, 50, 60, 60, 60, 80, 80, 80, 100, 100, 100, 100, 120, 120, 120
     };
 
-    private final GrayscaleSpriteSheet spriteSheet;
+    private @Nullable GrayscaleSpriteSheet spriteSheet;  // loaded on first render
     private int animationFrame;
 
     private final boolean isElroy;  // Blinky becomes "Elroy" and moves faster
@@ -134,6 +135,7 @@ public class GhostEntity extends Entity {
         }
 
         this.state = state;
+        maze.onGhostStateChange();
     }
 
     @Override
@@ -156,7 +158,7 @@ public class GhostEntity extends Entity {
         }
 
         // When entering a tunnel, the ghosts suffer a severe speed penalty
-        if (maze.getTile(getTilePosition()).getState() == TileState.TUNNEL) {
+        if (maze.getState(getTileX(), getTileY()) == TileState.TUNNEL) {
             return BASE_SPEED * switch (level) {
                 case 1 -> 0.40;
                 case 2, 3, 4 -> 0.45;
@@ -207,7 +209,7 @@ public class GhostEntity extends Entity {
     @Override
     public void update() {
         super.update();
-        Tile current = maze.getTile(getTilePosition());
+        Tile current = getTile();
         double speed = getSpeed();
 
         if (ticksAlive % 5 == 0)
@@ -221,7 +223,9 @@ public class GhostEntity extends Entity {
             // If moving forward would cause the ghost to leave it's current tile, then
             // we need to change direction.
             speed = 0.5;
-            Tile next = maze.getTile(maze.toTileCoords(getPosition().add(direction.getDx() * speed, direction.getDy() * speed)));
+            double nextX = position.x() + direction.getDx() * speed;
+            double nextY = position.y() + direction.getDy() * speed;
+            Tile next = maze.getTile((int) nextX / Maze.TILE_SIZE, (int) nextY / Maze.TILE_SIZE);
             if (!current.equals(next)) {
                 direction = direction.behind();
             }
@@ -247,7 +251,7 @@ public class GhostEntity extends Entity {
             direction = dx > 0 ? Direction.LEFT : Direction.RIGHT;
             double x = NumberUtil.moveTowards(position.x(), centerX, 0.5);
             double y = position.y();
-            setPosition(new Vector2d(x, y));
+            setPosition(x, y);
             return;
         }
 
@@ -256,13 +260,12 @@ public class GhostEntity extends Entity {
             Tile down = current.getNeighbor(Direction.DOWN);
             if (down.getState() == TileState.GHOST_PEN) {
                 // move towards the center of the board, on the x-axis
-                Vector2d position = getPosition();
                 int centerX = maze.getPixelDimensions().x() / 2;
-                position.x = NumberUtil.moveTowards(position.x(), centerX, speed);
-                setPosition(position);
+                double x = NumberUtil.moveTowards(position.x(), centerX, speed);
+                setPosition(x, position.y());
 
                 // If we are centered, move down
-                if (position.x() == centerX) {
+                if (x == centerX) {
                     direction = Direction.DOWN;
                     move(direction, speed, false);
                 }
@@ -285,27 +288,30 @@ public class GhostEntity extends Entity {
 
         // Basic collision detection
         PacmanEntity pacman = maze.getPacman();
-        if (pacman.getTilePosition().equals(getTilePosition())) {
+        if (pacman.getTileX() == getTileX() && pacman.getTileY() == getTileY()) {
             maze.eatGhost(pacman, this);
         }
 
         // In ghost may only change direction when it enters an intersection.
         // Since ghosts may not reverse direction, we simply check when we enter
         // a new tile.
-        Tile last = maze.getTile(maze.toTileCoords(lastPosition));
+        Tile last = maze.getTile((int) lastPosition.x() / Maze.TILE_SIZE, (int) lastPosition.y() / Maze.TILE_SIZE);
         if (!last.equals(current) || nextDirection == null) {
             Behavior behavior = getBehavior();
+            long start = Phase.DECISION.start();
             nextDirection = behavior.getDirection(this);
+            Phase.DECISION.stop(start);
         }
 
         // When we are locked into a new direction, we should move towards the center
         // of the tile, then move in that direction.
         if (nextDirection != direction) {
-            Vector2d center = new Vector2d(current.getCenterPixel());
-            if (!position.equals(center, 0.1)) {
-                double x = NumberUtil.moveTowards(position.x(), center.x(), speed);
-                double y = NumberUtil.moveTowards(position.y(), center.y(), speed);
-                setPosition(new Vector2d(x, y));
+            int centerX = current.getCenterX();
+            int centerY = current.getCenterY();
+            if (Math.abs(position.x() - centerX) > 0.1 || Math.abs(position.y() - centerY) > 0.1) {
+                double x = NumberUtil.moveTowards(position.x(), centerX, speed);
+                double y = NumberUtil.moveTowards(position.y(), centerY, speed);
+                setPosition(x, y);
                 return;
             }
 
@@ -347,6 +353,8 @@ public class GhostEntity extends Entity {
             spriteY = 1;
         }
 
+        if (spriteSheet == null)
+            spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/ghost-sprite.png"), 20);
         spriteSheet.setColors(colors);
         spriteSheet.setCurrentTile(spriteX, spriteY);
         int pixelX = (int) position.x() - spriteSheet.getTileSize().x() / 2 + 1;
@@ -356,13 +364,14 @@ public class GhostEntity extends Entity {
 
     @Override
     public void dispose() {
-        spriteSheet.dispose();
+        if (spriteSheet != null)
+            spriteSheet.dispose();
     }
 
 
     public static class Config {
         public boolean isElroy = false;
-        public @NotNull GrayscaleSpriteSheet spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/ghost-sprite.png"), 20);
+        public @Nullable GrayscaleSpriteSheet spriteSheet = null;  // null means load the default sprite when first rendered
         public @NotNull Behavior chase = new AggressiveChaseBehavior();
         public @NotNull Vector2i scatterTile = new Vector2i();
         public @NotNull Vector2i spawnPixel = new Vector2i();
@@ -8,14 +8,16 @@ import com.buaisociety.pacman.entity.behavior.Behavior;
 import com.buaisociety.pacman.maze.Maze;
 import com.buaisociety.pacman.maze.Tile;
 import com.buaisociety.pacman.maze.TileState;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.sprite.GrayscaleSpriteSheet;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2d;
 import org.joml.Vector2i;
 
 public class PacmanEntity extends Entity {
 
-    private final GrayscaleSpriteSheet spriteSheet;
+    private @Nullable GrayscaleSpriteSheet spriteSheet;  // loaded on first render
     private int animationFrame;
 
     private final @NotNull Vector2i spawnPixel;
@@ -32,7 +34,8 @@ public class PacmanEntity extends Entity {
 
         // This sprite sheet is 3x4 tiled sprite sheet, each tile is 20x20 pixels
         this.spriteSheet = config.spriteSheet;
-        this.spriteSheet.setColors(Color.CLEAR, Color.YELLOW);
+        if (spriteSheet != null)
+            spriteSheet.setColors(Color.CLEAR, Color.YELLOW);
     }
 
     @Override
@@ -108,13 +111,15 @@ public class PacmanEntity extends Entity {
             animationFrame++;
 
         Behavior behavior = getBehavior();
+        long start = Phase.DECISION.start();
         direction = behavior.getDirection(this);
+        Phase.DECISION.stop(start);
         if (canMove(direction)) {
             move(direction, getSpeed(), true);
         }
 
         // Eat pellets
-        Tile tile = maze.getTile(maze.toTileCoords(position));
+        Tile tile = getTile();
         TileState pellet = maze.eatPellet(this, tile);
         if (pellet == TileState.PELLET) {
             freezeTicks += 1;
@@ -126,6 +131,10 @@ public class PacmanEntity extends Entity {
     @Override
     public void render(@NotNull SpriteBatch batch) {
         behavior.render(batch);
+        if (spriteSheet == null) {
+            spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/pacman-sprite.png"), 20);
+            spriteSheet.setColors(Color.CLEAR, Color.YELLOW);
+        }
 
         // Render the current tile of the sprite sheet
         switch (animationFrame % 4) {
@@ -140,13 +149,14 @@ public class PacmanEntity extends Entity {
 
     @Override
     public void dispose() {
-        spriteSheet.dispose();
+        if (spriteSheet != null)
+            spriteSheet.dispose();
     }
 
 
     public static class Config {
         public @NotNull Behavior behavior = new AggressiveChaseBehavior();
         public @NotNull Vector2i spawnPixel = new Vector2i();
-        public @NotNull GrayscaleSpriteSheet spriteSheet = new GrayscaleSpriteSheet(new Texture("sprites/pacman-sprite.png"), 20);
+        public @Nullable GrayscaleSpriteSheet spriteSheet = null;  // null means load the default sprite when first rendered
     }
 }
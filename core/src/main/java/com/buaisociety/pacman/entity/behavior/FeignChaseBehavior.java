@@ -5,16 +5,21 @@ import com.buaisociety.pacman.entity.GhostEntity;
 import com.buaisociety.pacman.entity.PacmanEntity;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Vector2i;
+import org.joml.Vector2ic;
 
 public class FeignChaseBehavior implements TargetableBehavior {
+
+    private final @NotNull Vector2i target = new Vector2i();
+
     @NotNull
     @Override
-    public Vector2i getTarget(@NotNull Entity entity) {
+    public Vector2ic getTarget(@NotNull Entity entity) {
         PacmanEntity pacman = entity.getMaze().getPacman();
-        Vector2i target = pacman.getTilePosition();
+        int dx = pacman.getTileX() - entity.getTileX();
+        int dy = pacman.getTileY() - entity.getTileY();
 
-        if (target.distanceSquared(entity.getTilePosition()) > 64) {
-            return target;
+        if (dx * dx + dy * dy > 64) {
+            return target.set(pacman.getTileX(), pacman.getTileY());
         } else {
             return ((GhostEntity) entity).getScatterTile();
         }
@@ -2,13 +2,19 @@ package com.buaisociety.pacman.entity.behavior;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.buaisociety.pacman.CompiledNetworks;
 import com.buaisociety.pacman.NeatConfig;
 import com.buaisociety.pacman.entity.GhostEntity;
 import com.buaisociety.pacman.maze.Maze;
+import com.buaisociety.pacman.maze.PathOracle;
+import com.buaisociety.pacman.maze.PelletRays;
+import com.buaisociety.pacman.maze.RayTable;
 import com.buaisociety.pacman.maze.Tile;
 import com.buaisociety.pacman.maze.TileState;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.sprite.DebugDrawing;
 import com.cjcrafter.neat.Client;
+import com.cjcrafter.neat.compute.Calculator;
 import com.buaisociety.pacman.entity.Direction;
 import com.buaisociety.pacman.entity.Entity;
 import com.buaisociety.pacman.entity.PacmanEntity;
@@ -25,6 +31,9 @@ public class NeatPacmanBehavior implements Behavior {
     public static float epsilon = 1.0f;
 
     private final @NotNull Client client;
+    private final @Nullable CompiledNetworks networks;
+    private final int slot;
+    private final @Nullable TileEntryDecision decision;  // null when the network decides every tick
     private @Nullable PacmanEntity pacman;
 
     private Direction forward = Direction.UP;
@@ -42,7 +51,7 @@ public class NeatPacmanBehavior implements Behavior {
     private int lastScore = 0;
     private int updatesSinceLastScore = 0;
 
-    private int[][] distances;
+    private PathOracle paths;  // shared shortest path tables for the current maze
 
     public int numGhosts = 0;
 
@@ -57,10 +66,52 @@ public class NeatPacmanBehavior implements Behavior {
     public static boolean useRelative = true;
 
     public NeatPacmanBehavior(@NotNull Client client) {
+        this(client, null, -1, null);
+    }
+
+    /**
+     * Creates a behavior that evaluates the compiled network of the client
+     * instead of neat4j's calculator.
+     *
+     * @param client the client whose network controls pacman
+     * @param networks the compiled networks, or null to use neat4j's calculator
+     * @param slot the slot in the compiled networks owned by this game
+     * @param decision keeps the last decision until pacman enters a new tile, or null to decide every tick
+     */
+    public NeatPacmanBehavior(@NotNull Client client, @Nullable CompiledNetworks networks, int slot, @Nullable TileEntryDecision decision) {
         this.client = client;
+        this.networks = networks;
+        this.slot = slot;
+        this.decision = decision;
         this.random = new Random();
     }
 
+    /**
+     * Builds the inputs the network would be given if pacman decided right
+     * now, without making a decision. Used to measure how long building the
+     * inputs takes.
+     *
+     * @param pacman the pacman controlled by this behavior
+     * @return the inputs of the network
+     */
+    public float @NotNull [] buildInputs(@NotNull PacmanEntity pacman) {
+        initializePacman(pacman);
+        updateDirections();
+        highlightedTiles.clear();
+        highlightedPellets.clear();
+        paths = pacman.getMaze().getTemplate().getPathOracle();
+        return buildInputs();
+    }
+
+    /**
+     * Returns the calculator for the client's current network. This is looked
+     * up on every decision, since the network changes when the population
+     * evolves.
+     */
+    private @NotNull Calculator getCalculator() {
+        return networks != null ? networks.get(slot, client) : client.getCalculator();
+    }
+
     /**
      * Returns the desired direction that the entity should move towards.
      *
@@ -73,21 +124,34 @@ public class NeatPacmanBehavior implements Behavior {
         initializePacman(entity);
         updateDirections();
 
-        highlightedTiles.clear();
-        highlightedPellets.clear();
-        distances = computeDistances();
-
         handleSpecialTrainingConditions();
 
+        // Keep going the same way until something changes
+        Direction lastDirection = decision != null ? decision.get(pacman) : null;
+        if (lastDirection != null) {
+            updateScore(lastDirection);
+            moveHistory.add(lastDirection);
+            return lastDirection;
+        }
+
+        highlightedTiles.clear();
+        highlightedPellets.clear();
+        paths = pacman.getMaze().getTemplate().getPathOracle();
 
+        long start = Phase.FEATURES.start();
         float[] inputs = buildInputs();
+        Phase.FEATURES.stop(start);
 
-        float[] outputs = client.getCalculator().calculate(inputs).join();
+        start = Phase.NETWORK.start();
+        float[] outputs = getCalculator().calculate(inputs).join();
+        Phase.NETWORK.stop(start);
         lastOutputs = outputs;
 
         Direction newDirection = selectDirectionFromOutputs(new float[]{outputs[0], outputs[1], outputs[2], outputs[3]});
 
         updateScore(newDirection);
+        if (decision != null)
+            decision.set(pacman, newDirection);
 
         moveHistory.add(newDirection);
         return newDirection;
@@ -184,9 +248,10 @@ public class NeatPacmanBehavior implements Behavior {
         int ghostIndex = 0;
         for (GhostEntity ghost : ghosts) {
             if (ghostIndex >= 4) break; // Limit to 4 ghosts
-            float distance = distances[ghost.getTilePosition().x()][ghost.getTilePosition().y()];
-            if (distance == -1) continue;
-            Tile ghostTile = pacman.getMaze().getTile(ghost.getTilePosition());
+            Vector2i ghostPos = ghost.getTilePosition();
+            float distance = getDistance(ghostPos.x(), ghostPos.y());
+            if (distance == PathOracle.UNREACHABLE) continue;
+            Tile ghostTile = pacman.getMaze().getTile(ghostPos);
             Direction direction = getFirstStepToTile(ghostTile);
             if (direction == null) continue;
 
@@ -294,42 +359,25 @@ public class NeatPacmanBehavior implements Behavior {
         float[] rayCastWalls = new float[directions.length];
         float[] rayCastPellets = new float[directions.length];
 
+        Maze maze = pacman.getMaze();
+        RayTable walls = maze.getTemplate().getRayTable();
+        PelletRays pellets = maze.getPelletRays();
+        Vector2i start = pacman.getTilePosition();
         for (int i = 0; i < directions.length; i++) {
             Vector2i direction = directions[i];
-            Vector2i position = new Vector2i(pacman.getTilePosition());
 
             // Ray cast for walls
-            int wallDistance = 0;
-            while (isWithinBounds(position, dimensions) &&
-                pacman.getMaze().getTile(position).getState() != TileState.WALL) {
-                position.add(direction);
-                wallDistance++;
-            }
-
-            if (isWithinBounds(position, dimensions)) {
-                highlightedTiles.add(pacman.getMaze().getTile(position));
+            int wallDistance = walls.getWallDistance(start.x, start.y, direction.x, direction.y);
+            if (wallDistance != RayTable.NO_WALL) {
+                highlightedTiles.add(maze.getTile(start.x + direction.x * wallDistance, start.y + direction.y * wallDistance));
                 // Normalize distance to [0,1] range - closer walls give higher values
                 rayCastWalls[i] = 1.0f - (wallDistance / maxDistance);
             }
 
-            // Reset position for pellet raycast
-            position.set(pacman.getTilePosition());
-            int pelletDistance = 0;
-
             // Ray cast for pellets
-            while (isWithinBounds(position, dimensions) &&
-                pacman.getMaze().getTile(position).getState() != TileState.PELLET &&
-                pacman.getMaze().getTile(position).getState() != TileState.POWER_PELLET) {
-                position.add(direction);
-                pelletDistance++;
-                if (!isWithinBounds(position, dimensions)) {
-                    pelletDistance = (int)maxDistance; // If no pellet found, set to max distance
-                    break;
-                }
-            }
-
-            if (isWithinBounds(position, dimensions)) {
-                highlightedPellets.add(pacman.getMaze().getTile(position));
+            int pelletDistance = pellets.getPelletDistance(start.x, start.y, direction.x, direction.y);
+            if (pelletDistance != PelletRays.NO_PELLET) {
+                highlightedPellets.add(maze.getTile(start.x + direction.x * pelletDistance, start.y + direction.y * pelletDistance));
                 // Normalize distance to [0,1] range - closer pellets give higher values
                 rayCastPellets[i] = 1.0f - (pelletDistance / maxDistance);
             }
@@ -485,59 +533,7 @@ public class NeatPacmanBehavior implements Behavior {
      */
     @Nullable
     public Direction getFirstStepToTile(@NotNull Tile targetTile) {
-        Vector2ic targetPos = targetTile.getPosition();
-        Vector2ic currentPos = pacman.getTilePosition();
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-
-        // If we're already at the target, no need to move
-        if (currentPos.equals(targetPos)) {
-            return null;
-        }
-
-        // If target is unreachable (distance == -1), return null
-        if (distances[targetPos.x()][targetPos.y()] == -1) {
-            return null;
-        }
-
-        // Start from the target and work backwards to find the first step
-        Vector2i backtrackPos = new Vector2i(targetPos);
-        int currentDistance = distances[targetPos.x()][targetPos.y()];
-
-        while (currentDistance > 1) {
-            boolean stepFound = false;
-
-            for (Direction dir : Direction.values()) {
-                int nextX = backtrackPos.x() + dir.getDx();
-                int nextY = backtrackPos.y() + dir.getDy();
-
-                if (!isWithinBounds(new Vector2i(nextX, nextY), dimensions)) {
-                    continue;
-                }
-
-                if (distances[nextX][nextY] == currentDistance - 1) {
-                    backtrackPos.set(nextX, nextY);
-                    currentDistance--;
-                    stepFound = true;
-                    break;
-                }
-            }
-
-            if (!stepFound) {
-                return null; // Path is broken
-            }
-        }
-
-        // Determine the direction from Pacman's current position to the backtrack position
-        for (Direction dir : Direction.values()) {
-            int stepX = currentPos.x() + dir.getDx();
-            int stepY = currentPos.y() + dir.getDy();
-
-            if (stepX == backtrackPos.x() && stepY == backtrackPos.y()) {
-                return dir;
-            }
-        }
-        System.out.println("No direction found");
-        return null; // Should not reach here
+        return paths.getNextStep(pacman.getTilePosition(), targetTile.getPosition());
     }
 
     /**
@@ -575,20 +571,8 @@ public class NeatPacmanBehavior implements Behavior {
      */
     @NotNull
     public Tile getNearestPowerPellet() {
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-        Tile nearestPowerPellet = null;
-
-        for (int y = 0; y < dimensions.y(); y++) {
-            for (int x = 0; x < dimensions.x(); x++) {
-                Tile tile = pacman.getMaze().getTile(x, y);
-                if (tile.getState() == TileState.POWER_PELLET) {
-                    if (nearestPowerPellet == null ||
-                        distances[x][y] < distances[nearestPowerPellet.getPosition().x()][nearestPowerPellet.getPosition().y()]) {
-                        nearestPowerPellet = tile;
-                    }
-                }
-            }
-        }
+        Vector2i pacmanPos = pacman.getTilePosition();
+        Tile nearestPowerPellet = pacman.getMaze().getPellets().getNearestPowerPellet(pacmanPos.x(), pacmanPos.y());
 
         // Fallback to -1, -1 if no power pellets are found
         if (nearestPowerPellet == null) {
@@ -605,61 +589,39 @@ public class NeatPacmanBehavior implements Behavior {
      */
     @NotNull
     public Tile getNearestPellet() {
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-        Tile nearestPellet = null;
-
-        for (int y = 0; y < dimensions.y(); y++) {
-            for (int x = 0; x < dimensions.x(); x++) {
-                Tile tile = pacman.getMaze().getTile(x, y);
-                if (tile.getState() == TileState.PELLET || tile.getState() == TileState.POWER_PELLET) {
-                    if (nearestPellet == null ||
-                        distances[x][y] < distances[nearestPellet.getPosition().x()][nearestPellet.getPosition().y()]) {
-                        nearestPellet = tile;
-                    }
-                }
-            }
-        }
-
-        return nearestPellet;
+        Vector2i pacmanPos = pacman.getTilePosition();
+        return pacman.getMaze().getPellets().getNearestPellet(pacmanPos.x(), pacmanPos.y());
     }
 
 
 
     /**
-     * Computes the distances from Pacman's current position to all reachable tiles using BFS.
+     * Returns the shortest path distance from Pacman's current tile to the given tile.
+     *
+     * @param x the x-coordinate of the tile
+     * @param y the y-coordinate of the tile
+     * @return the distance, or {@link PathOracle#UNREACHABLE} if there is no path
+     */
+    private int getDistance(int x, int y) {
+        Vector2i pacmanPos = pacman.getTilePosition();
+        return paths.getDistance(pacmanPos.x(), pacmanPos.y(), x, y);
+    }
+
+    /**
+     * Computes the distances from Pacman's current position to all tiles,
+     * using the maze's precomputed {@link PathOracle}.
      *
-     * @return a 2D array of distances
+     * @return a 2D array of distances, indexed by <code>[x][y]</code>
      */
     public int[][] computeDistances() {
+        PathOracle paths = pacman.getMaze().getTemplate().getPathOracle();
         Vector2ic dimensions = pacman.getMaze().getDimensions();
         Vector2ic pacmanPos = pacman.getTilePosition();
         int[][] distance = new int[dimensions.x()][dimensions.y()];
 
         for (int y = 0; y < dimensions.y(); y++) {
             for (int x = 0; x < dimensions.x(); x++) {
-                distance[x][y] = -1;
-            }
-        }
-
-        distance[pacmanPos.x()][pacmanPos.y()] = 0;
-        Queue<Vector2i> queue = new LinkedList<>();
-        queue.add(new Vector2i(pacmanPos));
-
-        while (!queue.isEmpty()) {
-            Vector2i current = queue.poll();
-            for (Direction dir : Direction.values()) {
-                int nextX = current.x() + dir.getDx();
-                int nextY = current.y() + dir.getDy();
-
-                if (!isWithinBounds(new Vector2i(nextX, nextY), dimensions)) {
-                    continue;
-                }
-
-                if (pacman.getMaze().getTile(nextX, nextY).getState() != TileState.WALL &&
-                    distance[nextX][nextY] == -1) {
-                    distance[nextX][nextY] = distance[current.x()][current.y()] + 1;
-                    queue.add(new Vector2i(nextX, nextY));
-                }
+                distance[x][y] = paths.getDistance(pacmanPos.x(), pacmanPos.y(), x, y);
             }
         }
 
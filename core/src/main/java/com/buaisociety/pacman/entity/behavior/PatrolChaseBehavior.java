@@ -9,12 +9,14 @@ import com.buaisociety.pacman.maze.Maze;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2i;
+import org.joml.Vector2ic;
 
 /**
  * This behavior coordinates with the
  */
 public class PatrolChaseBehavior implements TargetableBehavior {
 
+    private final @NotNull Vector2i target = new Vector2i();
     private @Nullable GhostEntity blinky;
 
     public @NotNull GhostEntity findBlinky(@NotNull Maze maze) {
@@ -29,7 +31,7 @@ public class PatrolChaseBehavior implements TargetableBehavior {
 
     @NotNull
     @Override
-    public Vector2i getTarget(@NotNull Entity entity) {
+    public Vector2ic getTarget(@NotNull Entity entity) {
         Maze maze = entity.getMaze();
         if (blinky == null) {
             blinky = findBlinky(maze);
@@ -37,10 +39,10 @@ public class PatrolChaseBehavior implements TargetableBehavior {
 
         PacmanEntity pacman = maze.getPacman();
         Direction dir = pacman.getDirection();
-        Vector2i target = pacman.getTilePosition().add(dir.getDx() * 2, dir.getDy() * 2);
+        int aheadX = pacman.getTileX() + dir.getDx() * 2;
+        int aheadY = pacman.getTileY() + dir.getDy() * 2;
 
-        Vector2i between = target.sub(blinky.getTilePosition());
-        between.mul(2).add(blinky.getTilePosition());
-        return between;
+        // Double the vector from blinky to 2 tiles ahead of pacman
+        return target.set(2 * aheadX - blinky.getTileX(), 2 * aheadY - blinky.getTileY());
     }
 }
@@ -2,17 +2,20 @@ package com.buaisociety.pacman.entity.behavior;
 
 import com.buaisociety.pacman.entity.Direction;
 import com.buaisociety.pacman.entity.Entity;
-import com.buaisociety.pacman.maze.Maze;
-import com.buaisociety.pacman.maze.Tile;
+import com.buaisociety.pacman.maze.MazeLayout;
 import org.jetbrains.annotations.NotNull;
-import org.joml.RoundingMode;
-import org.joml.Vector2i;
+import org.joml.Vector2ic;
 
 /**
  * A behavior that targets a tile in the maze instead of a direction.
  *
  * <p>The direction will be chosen based on which direction immediately makes
  * the entity closer to the target tile.
+ *
+ * <p>Every ghost asks for a direction each time it enters a new tile, so this
+ * does not allocate anything: distances are computed from the tile
+ * coordinates directly, and implementations return a vector they reuse.
+ * Outside of junctions, the target is not computed at all.
  */
 public interface TargetableBehavior extends Behavior {
 
@@ -25,23 +28,42 @@ public interface TargetableBehavior extends Behavior {
 
     @Override
     default @NotNull Direction getDirection(@NotNull Entity entity) {
-        Vector2i target = getTarget(entity);
+        int tileX = entity.getTileX();
+        int tileY = entity.getTileY();
+        Direction behind = entity.getDirection().behind();
+        MazeLayout layout = entity.getMaze().getLayout();
+        int index = layout.toIndex(tileX, tileY);
+
+        // Away from junctions there is usually only 1 way to go, so the target
+        // doesn't matter
+        if (!layout.isJunction(index)) {
+            Direction only = null;
+            int options = 0;
+            for (Direction direction : DIRECTIONS) {
+                if (behind != direction && layout.isPassable(layout.getNeighbor(index, direction))) {
+                    only = direction;
+                    options++;
+                }
+            }
+            if (options == 1)
+                return only;
+        }
 
+        Vector2ic target = getTarget(entity);
         Direction temp = null;
-        int smallest = Integer.MAX_VALUE;
+        long smallest = Long.MAX_VALUE;
 
-        Tile current = entity.getMaze().getTile(entity.getTilePosition());
         for (Direction direction : DIRECTIONS) {
             // Ghosts may not reverse direction
-            if (entity.getDirection().behind() == direction)
+            if (behind == direction)
                 continue;
 
-            Tile next = current.getNeighbor(direction);
-            if (!next.getState().isPassable())
+            if (!layout.isPassable(layout.getNeighbor(index, direction)))
                 continue;
 
-            Vector2i location = new Vector2i(entity.getPosition().div(Maze.TILE_SIZE), RoundingMode.TRUNCATE).add(direction.asVector());
-            int distance = (int) location.distanceSquared(target);
+            long dx = tileX + direction.getDx() - target.x();
+            long dy = tileY + direction.getDy() - target.y();
+            long distance = dx * dx + dy * dy;
 
             if (distance <= smallest) {
                 smallest = distance;
@@ -55,5 +77,14 @@ public interface TargetableBehavior extends Behavior {
         return temp;
     }
 
-    @NotNull Vector2i getTarget(@NotNull Entity entity);
+    /**
+     * Returns the tile the entity wants to reach.
+     *
+     * <p>The returned vector may be reused by the behavior, so it is only
+     * valid until the next call, and should not be modified.
+     *
+     * @param entity the entity using this behavior.
+     * @return the target tile.
+     */
+    @NotNull Vector2ic getTarget(@NotNull Entity entity);
 }
@@ -0,0 +1,59 @@
+package com.buaisociety.pacman.entity.behavior;
+
+import com.buaisociety.pacman.entity.Direction;
+import com.buaisociety.pacman.entity.PacmanEntity;
+import com.buaisociety.pacman.maze.Maze;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Remembers the last direction a network chose for pacman, so the network
+ * only has to be evaluated again when that choice could change.
+ *
+ * <p>Pacman moves a little over 1 pixel per tick, so it spends about 6 ticks
+ * in each 8 pixel tile, and a network asked every tick mostly repeats itself.
+ * A decision is kept until pacman enters a new tile (every junction is
+ * entered as a new tile), until it can no longer move in the chosen
+ * direction, or until the maze reports a {@link Maze#getDecisionEvents() decision event}
+ * like a power pellet or a ghost changing state.
+ *
+ * <p>Behaviors still run their per-tick bookkeeping (scores, idle timers)
+ * every tick, and only skip building the inputs and evaluating the network.
+ */
+public final class TileEntryDecision {
+
+    private @Nullable Maze maze;
+    private int tile;
+    private int events;
+    private @Nullable Direction direction;
+
+    /**
+     * Returns the direction chosen by the last decision, if it is still valid.
+     *
+     * @param pacman the pacman making the decision
+     * @return the last direction, or null if the network should decide again
+     */
+    public @Nullable Direction get(@NotNull PacmanEntity pacman) {
+        Maze maze = pacman.getMaze();
+        if (direction == null || maze != this.maze || events != maze.getDecisionEvents())
+            return null;
+        if (tile != maze.getLayout().toIndex(pacman.getTileX(), pacman.getTileY()))
+            return null;
+        if (!pacman.canMove(direction))
+            return null;
+        return direction;
+    }
+
+    /**
+     * Remembers the direction the network just chose.
+     *
+     * @param pacman the pacman that made the decision
+     * @param direction the chosen direction
+     */
+    public void set(@NotNull PacmanEntity pacman, @NotNull Direction direction) {
+        this.maze = pacman.getMaze();
+        this.tile = maze.getLayout().toIndex(pacman.getTileX(), pacman.getTileY());
+        this.events = maze.getDecisionEvents();
+        this.direction = direction;
+    }
+}
@@ -7,6 +7,8 @@ import com.buaisociety.pacman.entity.Entity;
 import com.buaisociety.pacman.entity.GhostEntity;
 import com.buaisociety.pacman.entity.PacmanEntity;
 import com.buaisociety.pacman.maze.Maze;
+import com.buaisociety.pacman.maze.PathOracle;
+import com.buaisociety.pacman.maze.RayTable;
 import com.buaisociety.pacman.maze.Tile;
 import com.buaisociety.pacman.maze.TileState;
 import com.buaisociety.pacman.sprite.DebugDrawing;
@@ -26,6 +28,7 @@ import java.util.*;
 public class TournamentBehavior implements Behavior {
 
     private final Calculator calculator;
+    private final @Nullable TileEntryDecision decision;  // null when the network decides every tick
     private @Nullable PacmanEntity pacman;
 
     private Direction forward = Direction.UP;
@@ -43,7 +46,7 @@ public class TournamentBehavior implements Behavior {
     private int lastScore = 0;
     private int updatesSinceLastScore = 0;
 
-    private int[][] distances;
+    private PathOracle paths;  // shared shortest path tables for the current maze
 
     public int numGhosts = 0;
 
@@ -56,9 +59,32 @@ public class TournamentBehavior implements Behavior {
     ArrayList<Vector2d> positions = new ArrayList<Vector2d>();
 
     public TournamentBehavior(@NotNull Calculator calculator) {
-        this.calculator = calculator;
-        this.random = new Random();
+        this(calculator, new Random());
+    }
 
+    /**
+     * Creates a behavior whose random moves come from the given generator,
+     * so the same seed always plays the same game.
+     *
+     * @param calculator the network controlling pacman
+     * @param random the generator for random moves
+     */
+    public TournamentBehavior(@NotNull Calculator calculator, @NotNull Random random) {
+        this(calculator, random, null);
+    }
+
+    /**
+     * Creates a behavior that only evaluates the network when the given
+     * decision runs out, see {@link TileEntryDecision}.
+     *
+     * @param calculator the network controlling pacman
+     * @param random the generator for random moves
+     * @param decision keeps the last decision until pacman enters a new tile, or null to decide every tick
+     */
+    public TournamentBehavior(@NotNull Calculator calculator, @NotNull Random random, @Nullable TileEntryDecision decision) {
+        this.calculator = calculator;
+        this.random = random;
+        this.decision = decision;
     }
 
     /**
@@ -93,12 +119,28 @@ public class TournamentBehavior implements Behavior {
         // Initialize directions based on current direction
         updateDirections();
 
-        // Compute distances using BFS
-        distances = computeDistances();
+        // Distances are looked up from the maze's precomputed path tables
+        paths = pacman.getMaze().getTemplate().getPathOracle();
 
         // Handle special training conditions (similar to original behavior)
         handleSpecialTrainingConditions();
 
+        // Remember where pacman was on each of the last 40 ticks, even when
+        // the last decision is kept, to notice when pacman gets stuck
+        positions.add(new Vector2d(pacman.getTilePosition().x(), pacman.getTilePosition().y()));
+        boolean stuck = false;
+        if (positions.size() > 40 && updatesSinceLastScore > 30) {
+            positions.remove(0);
+            stuck = positions.get(0).equals(positions.get(39));
+        }
+
+        // Keep going the same way until something changes
+        Direction lastDirection = decision != null && !stuck ? decision.get(pacman) : null;
+        if (lastDirection != null) {
+            moveHistory.add(lastDirection);
+            return lastDirection;
+        }
+
         // Perform ray casting to detect walls
         float[] rayCastDistances = performRayCasting();
 
@@ -137,16 +179,11 @@ public class TournamentBehavior implements Behavior {
 
         // Add the new direction to move history
         moveHistory.add(newDirection);
-        positions.add(new Vector2d(pacman.getTilePosition().x(), pacman.getTilePosition().y()));
-        if (positions.size() > 40 && updatesSinceLastScore > 30) {
-            positions.remove(0);
-            if(positions.get(0).equals(positions.get(39))) {
-                Random random = new Random();
-                newDirection = Direction.values()[random.nextInt(4)];
-            }
-        }
-
+        if (stuck)
+            newDirection = Direction.values()[random.nextInt(4)];
 
+        if (decision != null)
+            decision.set(pacman, newDirection);
         return newDirection;
     }
 
@@ -203,22 +240,20 @@ public class TournamentBehavior implements Behavior {
     private float[] performRayCasting() {
         float[] rayCast = new float[4];
         Vector2ic dimensions = pacman.getMaze().getDimensions();
+        RayTable walls = pacman.getMaze().getTemplate().getRayTable();
+        Vector2i start = pacman.getTilePosition();
 
         for (int i = 0; i < 4; i++) {
             Direction direction = getDirectionByIndex(i);
-            Vector2i position = new Vector2i(pacman.getTilePosition().x(), pacman.getTilePosition().y());
-
-            while (isWithinBounds(position, dimensions) &&
-                pacman.getMaze().getTile(position).getState() != TileState.WALL) {
-                position.add(direction.getDx(), direction.getDy());
-                if (!isWithinBounds(position, dimensions)) {
-                    break;
-                }
-                rayCast[i] = (float) Math.sqrt(
-                    Math.pow((position.x() - pacman.getTilePosition().x()) / (double) dimensions.x(), 2) +
-                        Math.pow((position.y() - pacman.getTilePosition().y()) / (double) dimensions.y(), 2)
-                );
-            }
+
+            // The ray stops at the first wall, or at the edge of the maze
+            int distance = walls.getWallDistance(start.x, start.y, direction.getDx(), direction.getDy());
+            if (distance == RayTable.NO_WALL)
+                distance = walls.getEdgeDistance(start.x, start.y, direction.getDx(), direction.getDy());
+
+            rayCast[i] = direction.isHorizontal()
+                ? distance / (float) dimensions.x()
+                : distance / (float) dimensions.y();
         }
 
         return rayCast;
@@ -240,18 +275,6 @@ public class TournamentBehavior implements Behavior {
         };
     }
 
-    /**
-     * Checks if the given position is within the maze boundaries.
-     *
-     * @param position   the position to check
-     * @param dimensions the dimensions of the maze
-     * @return true if within bounds, false otherwise
-     */
-    private boolean isWithinBounds(Vector2i position, Vector2ic dimensions) {
-        return position.x() >= 0 && position.x() < dimensions.x() &&
-            position.y() >= 0 && position.y() < dimensions.y();
-    }
-
     /**
      * Gathers information about the ghosts in the maze.
      *
@@ -267,9 +290,10 @@ public class TournamentBehavior implements Behavior {
         int ghostIndex = 0;
         for (GhostEntity ghost : ghosts) {
             if (ghostIndex >= 4) break; // Limit to 4 ghosts
-            float distance = distances[ghost.getTilePosition().x()][ghost.getTilePosition().y()];
-            if (distance == -1) continue;
-            Tile ghostTile = pacman.getMaze().getTile(ghost.getTilePosition());
+            Vector2i ghostPos = ghost.getTilePosition();
+            float distance = getDistance(ghostPos.x(), ghostPos.y());
+            if (distance == PathOracle.UNREACHABLE) continue;
+            Tile ghostTile = pacman.getMaze().getTile(ghostPos);
             Direction direction = getFirstStepToTile(ghostTile);
             if (direction == null) continue;
 
@@ -387,59 +411,7 @@ public class TournamentBehavior implements Behavior {
      */
     @Nullable
     public Direction getFirstStepToTile(@NotNull Tile targetTile) {
-        Vector2ic targetPos = targetTile.getPosition();
-        Vector2ic currentPos = pacman.getTilePosition();
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-
-        // If we're already at the target, no need to move
-        if (currentPos.equals(targetPos)) {
-            return null;
-        }
-
-        // If target is unreachable (distance == -1), return null
-        if (distances[targetPos.x()][targetPos.y()] == -1) {
-            return null;
-        }
-
-        // Start from the target and work backwards to find the first step
-        Vector2i backtrackPos = new Vector2i(targetPos);
-        int currentDistance = distances[targetPos.x()][targetPos.y()];
-
-        while (currentDistance > 1) {
-            boolean stepFound = false;
-
-            for (Direction dir : Direction.values()) {
-                int nextX = backtrackPos.x() + dir.getDx();
-                int nextY = backtrackPos.y() + dir.getDy();
-
-                if (!isWithinBounds(new Vector2i(nextX, nextY), dimensions)) {
-                    continue;
-                }
-
-                if (distances[nextX][nextY] == currentDistance - 1) {
-                    backtrackPos.set(nextX, nextY);
-                    currentDistance--;
-                    stepFound = true;
-                    break;
-                }
-            }
-
-            if (!stepFound) {
-                return null; // Path is broken
-            }
-        }
-
-        // Determine the direction from Pacman's current position to the backtrack position
-        for (Direction dir : Direction.values()) {
-            int stepX = currentPos.x() + dir.getDx();
-            int stepY = currentPos.y() + dir.getDy();
-
-            if (stepX == backtrackPos.x() && stepY == backtrackPos.y()) {
-                return dir;
-            }
-        }
-
-        return null; // Should not reach here
+        return paths.getNextStep(pacman.getTilePosition(), targetTile.getPosition());
     }
 
     /**
@@ -477,28 +449,14 @@ public class TournamentBehavior implements Behavior {
      */
     @NotNull
     public Tile getNearestPowerPellet() {
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-        Tile nearestPowerPellet = null;
-
-        for (int y = 0; y < dimensions.y(); y++) {
-            for (int x = 0; x < dimensions.x(); x++) {
-                Tile tile = pacman.getMaze().getTile(x, y);
-                if (tile.getState() == TileState.POWER_PELLET) {
-                    if (nearestPowerPellet == null ||
-                        distances[x][y] < distances[nearestPowerPellet.getPosition().x()][nearestPowerPellet.getPosition().y()]) {
-                        nearestPowerPellet = tile;
-                    }
-                }
-            }
-        }
+        Vector2i pacmanPos = pacman.getTilePosition();
+        Tile nearestPowerPellet = pacman.getMaze().getPellets().getNearestPowerPellet(pacmanPos.x(), pacmanPos.y());
 
         // Fallback to (0,0) if no power pellets are found
         if (nearestPowerPellet == null) {
             nearestPowerPellet = pacman.getMaze().getTile(0, 0);
         }
 
-        System.out.println(nearestPowerPellet.getPosition());
-
         return nearestPowerPellet;
     }
 
@@ -509,64 +467,42 @@ public class TournamentBehavior implements Behavior {
      */
     @NotNull
     public Tile getNearestPellet() {
-        Vector2ic dimensions = pacman.getMaze().getDimensions();
-        Tile nearestPellet = null;
-
-        for (int y = 0; y < dimensions.y(); y++) {
-            for (int x = 0; x < dimensions.x(); x++) {
-                Tile tile = pacman.getMaze().getTile(x, y);
-                if (tile.getState() == TileState.PELLET || tile.getState() == TileState.POWER_PELLET) {
-                    if (nearestPellet == null ||
-                        distances[x][y] < distances[nearestPellet.getPosition().x()][nearestPellet.getPosition().y()]) {
-                        nearestPellet = tile;
-                    }
-                }
-            }
-        }
-
+        Vector2i pacmanPos = pacman.getTilePosition();
+        Tile nearestPellet = pacman.getMaze().getPellets().getNearestPellet(pacmanPos.x(), pacmanPos.y());
 
         if(nearestPellet == null) {
             nearestPellet = pacman.getMaze().getTile(0, 0);
         }
-        System.out.println(nearestPellet.getPosition());
         return nearestPellet;
     }
 
     /**
-     * Computes the distances from Pacman's current position to all reachable tiles using BFS.
+     * Returns the shortest path distance from Pacman's current tile to the given tile.
      *
-     * @return a 2D array of distances
+     * @param x the x-coordinate of the tile
+     * @param y the y-coordinate of the tile
+     * @return the distance, or {@link PathOracle#UNREACHABLE} if there is no path
+     */
+    private int getDistance(int x, int y) {
+        Vector2i pacmanPos = pacman.getTilePosition();
+        return paths.getDistance(pacmanPos.x(), pacmanPos.y(), x, y);
+    }
+
+    /**
+     * Computes the distances from Pacman's current position to all tiles,
+     * using the maze's precomputed {@link PathOracle}.
+     *
+     * @return a 2D array of distances, indexed by <code>[x][y]</code>
      */
     public int[][] computeDistances() {
+        PathOracle paths = pacman.getMaze().getTemplate().getPathOracle();
         Vector2ic dimensions = pacman.getMaze().getDimensions();
         Vector2ic pacmanPos = pacman.getTilePosition();
         int[][] distance = new int[dimensions.x()][dimensions.y()];
 
         for (int y = 0; y < dimensions.y(); y++) {
             for (int x = 0; x < dimensions.x(); x++) {
-                distance[x][y] = -1;
-            }
-        }
-
-        distance[pacmanPos.x()][pacmanPos.y()] = 0;
-        Queue<Vector2i> queue = new LinkedList<>();
-        queue.add(new Vector2i(pacmanPos));
-
-        while (!queue.isEmpty()) {
-            Vector2i current = queue.poll();
-            for (Direction dir : Direction.values()) {
-                int nextX = current.x() + dir.getDx();
-                int nextY = current.y() + dir.getDy();
-
-                if (!isWithinBounds(new Vector2i(nextX, nextY), dimensions)) {
-                    continue;
-                }
-
-                if (pacman.getMaze().getTile(nextX, nextY).getState() != TileState.WALL &&
-                    distance[nextX][nextY] == -1) {
-                    distance[nextX][nextY] = distance[current.x()][current.y()] + 1;
-                    queue.add(new Vector2i(nextX, nextY));
-                }
+                distance[x][y] = paths.getDistance(pacmanPos.x(), pacmanPos.y(), x, y);
             }
         }
 
@@ -0,0 +1,35 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a game ends, at the same time as the
+ * {@link com.buaisociety.pacman.event.GameEndEvent}, spanning from when the
+ * game started.
+ */
+@Name("pacman.Episode")
+@Label("Episode")
+@Category({"Pacman", "Game"})
+@Description("A game, from its first level until pacman ran out of lives")
+@StackTrace(false)
+public class EpisodeEvent extends Event {
+
+    @Label("Game")
+    public int game;
+
+    @Label("Level")
+    @Description("The level the game ended on")
+    public int level;
+
+    @Label("Score")
+    public int score;
+
+    @Label("Ticks")
+    @Description("The length of the game in ticks")
+    public long ticks;
+}
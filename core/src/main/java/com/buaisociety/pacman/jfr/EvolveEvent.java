@@ -0,0 +1,22 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when the population has evolved into the next generation.
+ */
+@Name("pacman.Evolve")
+@Label("Evolve")
+@Category({"Pacman", "Training"})
+@Description("Evolving the population into the next generation")
+@StackTrace(false)
+public class EvolveEvent extends Event {
+
+    @Label("Generation")
+    public int generation;
+}
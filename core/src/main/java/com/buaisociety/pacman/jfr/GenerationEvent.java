@@ -0,0 +1,29 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when every game of a generation has ended, spanning from when
+ * the generation's games were started.
+ */
+@Name("pacman.Generation")
+@Label("Generation")
+@Category({"Pacman", "Training"})
+@Description("Every game of 1 generation, from start until the last game ended")
+@StackTrace(false)
+public class GenerationEvent extends Event {
+
+    @Label("Generation")
+    public int generation;
+
+    @Label("Games")
+    public int games;
+
+    @Label("Best Score")
+    public double bestScore;
+}
@@ -0,0 +1,29 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a game has moved to its next level, and created the maze
+ * and entities for it.
+ */
+@Name("pacman.LevelLoad")
+@Label("Level Load")
+@Category({"Pacman", "Game"})
+@Description("A game moving to its next level")
+@StackTrace(false)
+public class LevelLoadEvent extends Event {
+
+    @Label("Game")
+    public int game;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Maze")
+    public String maze;
+}
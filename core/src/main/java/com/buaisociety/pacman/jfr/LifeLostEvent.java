@@ -0,0 +1,33 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when pacman loses a life, at the same time as the
+ * {@link com.buaisociety.pacman.event.LoseLifeEvent}.
+ */
+@Name("pacman.LifeLost")
+@Label("Life Lost")
+@Category({"Pacman", "Game"})
+@Description("Pacman losing a life")
+@StackTrace(false)
+public class LifeLostEvent extends Event {
+
+    @Label("Game")
+    public int game;
+
+    @Label("Level")
+    public int level;
+
+    @Label("Lives Left")
+    public int livesLeft;
+
+    @Label("Ticks")
+    @Description("Ticks since the game started")
+    public long ticks;
+}
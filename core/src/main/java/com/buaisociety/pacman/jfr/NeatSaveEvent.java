@@ -0,0 +1,22 @@
+package com.buaisociety.pacman.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when neat4j has saved the population, which blocks training.
+ */
+@Name("pacman.NeatSave")
+@Label("NEAT Save")
+@Category({"Pacman", "Training"})
+@Description("Saving the population with neat4j's own format")
+@StackTrace(false)
+public class NeatSaveEvent extends Event {
+
+    @Label("Generation")
+    public int generation;
+}
@@ -16,11 +16,12 @@ import com.buaisociety.pacman.event.EntityPreSpawnEvent;
 import com.buaisociety.pacman.event.EntityRemoveEvent;
 import com.buaisociety.pacman.event.EntitySpawnEvent;
 import com.buaisociety.pacman.event.GlobalBehaviorEvent;
-import com.buaisociety.pacman.sprite.CutoutSpriteSheet;
+import com.buaisociety.pacman.metrics.Phase;
 import com.buaisociety.pacman.sprite.GrayscaleSpriteSheet;
 import com.buaisociety.pacman.sprite.Particle;
 import com.buaisociety.pacman.sprite.TextSpriteSheet;
 import com.buaisociety.pacman.util.Disposable;
+import com.buaisociety.pacman.util.EventSystem;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector2d;
@@ -58,16 +59,31 @@ public class Maze implements Disposable {
     };
     public static final int[] LEVEL_FRIGHT_TIMES = new int[]{360, 300, 240, 180, 120, 300, 120, 120, 60, 300, 120, 60, 60, 180, 60, 60, 0, 60, 0};
 
+    /**
+     * The number of pellets each ghost waits for before leaving the ghost pen,
+     * on level 1, level 2, and every level after. Never modified.
+     */
+    private static final int[][] GHOST_RELEASE_PELLETS = new int[][]{
+        new int[]{0, 0, 30, 60},
+        new int[]{0, 0, 0, 50},
+        new int[]{0, 0, 0, 0}
+    };
+
 
     protected @NotNull GameManager gameManager;
-    protected @NotNull Sprite levelSprite;
-    protected @NotNull GrayscaleSpriteSheet pelletSprite;
-    protected @NotNull GrayscaleSpriteSheet powerPelletSprite;
-    protected @NotNull CutoutSpriteSheet fruitSprite;
-    protected @NotNull GrayscaleSpriteSheet bonusPointsSprite;
-    protected @NotNull Tile[][] tiles;
+    protected @NotNull MazeTemplate template;
+
+    // Sprites are loaded the first time they are needed, so mazes that are
+    // never rendered (e.g. headless training) never create any textures
+    protected @Nullable Sprite levelSprite;
+    protected @Nullable GrayscaleSpriteSheet pelletSprite;
+    protected @Nullable GrayscaleSpriteSheet powerPelletSprite;
+    protected @Nullable GrayscaleSpriteSheet bonusPointsSprite;
+    protected final @NotNull MazeLayout layout;  // shared by every game on this level
+    private @Nullable Tile @Nullable [] tileViews;  // created the first time each tile is requested
+    protected @NotNull PelletIndex pellets;
+    protected @NotNull PelletRays pelletRays;
     protected int totalPellets;
-    protected int pelletsRemaining;
     protected @NotNull List<Entity> entities;
     protected int ticks;
     protected int freezeTicks;
@@ -80,38 +96,25 @@ public class Maze implements Disposable {
 
     private int localChaseCounter;  // used to switch between chase and scatter
     private int frightenedTimer;  // 0 if not frightened, otherwise the number of ticks left
+    private @Nullable GlobalBehaviorEvent behaviorEvent;  // reused every time the ghosts switch modes
     private int localNumGhostsEaten;  // number of ghosts eaten from the current power pellet, tracked for bonuses
     private boolean isGhostChase;  // true if the ghosts are in chase mode, false if in scatter mode
     private int ghostChaseIndex;  // index of the current chase/scatter mode
+    private int decisionEvents;  // see getDecisionEvents()
 
-    public Maze(
-        @NotNull GameManager gameManager,
-        @NotNull Sprite levelSprite,
-        @NotNull TileState[][] tiles,
-        @NotNull Vector2i fruitSpawnPixel
-    ) {
+    public Maze(@NotNull GameManager gameManager, @NotNull MazeTemplate template) {
         this.gameManager = gameManager;
-        this.levelSprite = levelSprite;
-        this.tiles = new Tile[tiles.length][tiles[0].length];
-        for (int y = 0; y < tiles.length; y++) {
-            for (int x = 0; x < tiles[y].length; x++) {
-                this.tiles[y][x] = new Tile(this, new Vector2i(x, y), tiles[y][x]);
-            }
-        }
+        this.template = template;
+        this.layout = template.getLayout();
+        this.pellets = new PelletIndex(this, template.getPathOracle(), layout);
+        this.pelletRays = new PelletRays(template.getPelletRays());
         this.entities = new ArrayList<>();
-        this.tileDimensions = new Vector2i(tiles[0].length, tiles.length);
+        this.tileDimensions = new Vector2i(layout.getWidth(), layout.getHeight());
         this.pixelDimensions = new Vector2i(tileDimensions).mul(TILE_SIZE);
-        this.fruitSpawnPixel = fruitSpawnPixel;
+        this.fruitSpawnPixel = new Vector2i(template.getFruitSpawnPixel());
         this.particles = new ArrayList<>();
         initTiles();
 
-        pelletSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/pellet.png")), 8);
-        pelletSprite.setColors(Color.CLEAR, new Color(0xffb897ff));
-        powerPelletSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/power-pellet.png")), 8);
-        powerPelletSprite.setColors(Color.CLEAR, new Color(0xffb897ff));
-        fruitSprite = new CutoutSpriteSheet(new Texture(Gdx.files.internal("sprites/fruit-sprite.png")), 16);
-        bonusPointsSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/bonus-points-sprite.png")), new Vector2i(8 * 4, 8 * 2));
-
         // Start with chase so the first update flips it to scatter
         isGhostChase = true;
 
@@ -120,28 +123,66 @@ public class Maze implements Disposable {
     }
 
     /**
-     * Responsible for initializing the tiles array, and setting the initial variables of this Maze instance.
+     * Responsible for setting the initial variables of this Maze instance.
+     * Call this again after adding or removing pellets before the game starts,
+     * so the fruit spawns after the correct number of pellets are eaten.
      */
     public void initTiles() {
-        if (tiles == null) {
-            throw new IllegalStateException("Tiles array must be initialized before calling initTiles()");
-        }
+        totalPellets = pellets.getPelletCount();
+    }
 
-        pelletsRemaining = 0;
-        totalPellets = 0;
-        for (Tile[] row : tiles) {
-            for (Tile tile : row) {
-                TileState state = tile.getState();
-                if (state == TileState.PELLET || state == TileState.POWER_PELLET) {
-                    pelletsRemaining++;
-                    totalPellets++;
-                }
+    /**
+     * Returns the state of the tile, including its pellet.
+     *
+     * @param index the index of the tile, see {@link MazeLayout}
+     * @return the state of the tile
+     */
+    public final @NotNull TileState getState(int index) {
+        if (pellets.hasPellet(index))
+            return pellets.hasPowerPellet(index) ? TileState.POWER_PELLET : TileState.PELLET;
+        return layout.getState(index);
+    }
+
+    /**
+     * Called by {@link Tile#setState(TileState)} to add or remove a pellet,
+     * and keep the pellet index and pellet rays up to date. Walls, tunnels
+     * and the ghost pen are shared by every game, so they can't be changed.
+     */
+    void setState(int index, @NotNull TileState state) {
+        if (getState(index) == state)
+            return;
+
+        boolean isPellet = state == TileState.PELLET || state == TileState.POWER_PELLET;
+        if (isPellet ? !layout.isPassable(index) : state != layout.getState(index))
+            throw new IllegalArgumentException("Only pellets can change during a game, cannot set " + state + " at " + index);
+
+        pellets.update(index, state);
+        pelletRays.update(index % layout.getWidth(), index / layout.getWidth(), state);
+    }
+
+    /**
+     * Removes every pellet (and power pellet) whose bit is set in the given
+     * mask, 1 bit per tile index like {@link PelletIndex}. Bits for tiles
+     * without a pellet are ignored. Call {@link #initTiles()} afterwards if
+     * the game hasn't started yet.
+     *
+     * @param mask the tiles to clear, <code>(size + 63) / 64</code> longs
+     */
+    public void removePellets(long @NotNull [] mask) {
+        for (int word = 0; word < mask.length; word++) {
+            long bits = mask[word];
+            while (bits != 0) {
+                int index = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (pellets.hasPellet(index))
+                    setState(index, TileState.SPACE);
             }
         }
     }
 
     public void reset() {
         frightenedTimer = 0;
+        decisionEvents++;
         for (Entity entity : entities) {
             entity.reset();
         }
@@ -151,14 +192,54 @@ public class Maze implements Disposable {
         return gameManager;
     }
 
+    /**
+     * Returns the shared, immutable template this maze was created from.
+     *
+     * @return the template of this maze
+     */
+    public @NotNull MazeTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the name of the level this maze was loaded from. This matches
+     * one of the folders in the <code>./assets/mazes</code> directory.
+     *
+     * @return the name of the level
+     */
+    public @NotNull String getLevelName() {
+        return template.getName();
+    }
+
     public int getPelletsRemaining() {
-        return pelletsRemaining;
+        return pellets.getPelletCount();
+    }
+
+    /**
+     * Returns the index of the pellets left in this maze, used to find the
+     * nearest pellets without scanning every tile.
+     *
+     * @return the pellet index
+     */
+    public @NotNull PelletIndex getPellets() {
+        return pellets;
+    }
+
+    /**
+     * Returns the distance to the nearest pellet in each direction from every
+     * tile, kept up to date as pellets are eaten.
+     *
+     * @return the pellet rays
+     */
+    public @NotNull PelletRays getPelletRays() {
+        return pelletRays;
     }
 
     public @NotNull PacmanEntity getPacman() {
-        for (Entity entity : entities) {
-            if (entity instanceof PacmanEntity) {
-                return (PacmanEntity) entity;
+        // Every ghost calls this each tick, so don't allocate an iterator
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.get(i) instanceof PacmanEntity pacman) {
+                return pacman;
             }
         }
         throw new IllegalStateException("Pacman not found in maze");
@@ -223,9 +304,60 @@ public class Maze implements Disposable {
      * @return The tile at the given position.
      */
     public final @NotNull Tile getTile(int x, int y) {
-        y = (y + tileDimensions.y) % tileDimensions.y;
-        x = (x + tileDimensions.x) % tileDimensions.x;
-        return tiles[y][x];
+        return getTile(layout.toIndex(x, y));
+    }
+
+    /**
+     * Returns the tile at the given index.
+     *
+     * @param index The index of the tile, see {@link MazeLayout}.
+     * @return The tile at the given index.
+     */
+    public final @NotNull Tile getTile(int index) {
+        if (tileViews == null)
+            tileViews = new Tile[layout.getSize()];
+
+        Tile tile = tileViews[index];
+        if (tile == null) {
+            tile = new Tile(this, index % layout.getWidth(), index / layout.getWidth(), index);
+            tileViews[index] = tile;
+        }
+        return tile;
+    }
+
+    /**
+     * Returns the state of the tile at the given position, without looking
+     * up the {@link Tile}. Like {@link #getTile(int, int)}, positions outside
+     * the maze wrap around to the other side.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The state of the tile.
+     */
+    public final @NotNull TileState getState(int x, int y) {
+        return getState(layout.toIndex(x, y));
+    }
+
+    /**
+     * Returns true if the tile at the given position is passable to all
+     * entities, see {@link TileState#isPassable()}.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return True if the tile is passable.
+     */
+    public final boolean isPassable(int x, int y) {
+        return layout.isPassable(layout.toIndex(x, y));
+    }
+
+    /**
+     * Returns the walls, tunnels and ghost pen of this maze, which are shared
+     * with every other game on the same level.
+     *
+     * @return The shared layout.
+     */
+    public @NotNull MazeLayout getLayout() {
+        return layout;
     }
 
     /**
@@ -238,9 +370,29 @@ public class Maze implements Disposable {
      * @return The wrapped position.
      */
     public final @NotNull Vector2d getWrappedPosition(@NotNull Vector2d position) {
-        double y = (position.y + pixelDimensions.y) % pixelDimensions.y;
-        double x = (position.x + pixelDimensions.x) % pixelDimensions.x;
-        return new Vector2d(x, y);
+        return new Vector2d(wrapX(position.x), wrapY(position.y));
+    }
+
+    /**
+     * Wraps the x-coordinate of a position to the width of the maze, see
+     * {@link #getWrappedPosition(Vector2d)}.
+     *
+     * @param x The x-coordinate, in pixels.
+     * @return The wrapped x-coordinate.
+     */
+    public final double wrapX(double x) {
+        return (x + pixelDimensions.x) % pixelDimensions.x;
+    }
+
+    /**
+     * Wraps the y-coordinate of a position to the height of the maze, see
+     * {@link #getWrappedPosition(Vector2d)}.
+     *
+     * @param y The y-coordinate, in pixels.
+     * @return The wrapped y-coordinate.
+     */
+    public final double wrapY(double y) {
+        return (y + pixelDimensions.y) % pixelDimensions.y;
     }
 
     /**
@@ -252,6 +404,44 @@ public class Maze implements Disposable {
         return frightenedTimer;
     }
 
+    /**
+     * Returns the number of times something happened that pacman may want to
+     * react to right away: a power pellet was eaten, a ghost changed state,
+     * or the entities were reset after losing a life. Behaviors that only
+     * decide when pacman enters a new tile compare this to the value from
+     * their last decision, see {@link com.buaisociety.pacman.entity.behavior.TileEntryDecision}.
+     *
+     * @return the number of events so far in this maze
+     */
+    public int getDecisionEvents() {
+        return decisionEvents;
+    }
+
+    /**
+     * Called by {@link GhostEntity#setState(GhostState)} whenever a ghost
+     * changes state, see {@link #getDecisionEvents()}.
+     */
+    public void onGhostStateChange() {
+        decisionEvents++;
+    }
+
+    /**
+     * Jumps over every tick the maze will stay frozen for, as if
+     * {@link #update()} had been called that many times. While the maze is
+     * frozen, updates only count ticks (no entity moves, and no timer like
+     * the frightened timer or the chase/scatter counter changes), so skipping
+     * them gives exactly the same game.
+     *
+     * @return the number of ticks that were skipped
+     */
+    public int skipFrozenTicks() {
+        int skipped = freezeTicks + gameStartTicks;
+        ticks += skipped;
+        freezeTicks = 0;
+        gameStartTicks = 0;
+        return skipped;
+    }
+
     /**
      * Ghosts change between chase and scatter mode on a timer (set by this maze class).
      *
@@ -267,7 +457,7 @@ public class Maze implements Disposable {
      * @return <code>null</code> if the game is still running, or a {@link TerminalReason}
      */
     public @Nullable TerminalReason getTerminalReason() {
-        if (pelletsRemaining == 0)
+        if (pellets.getPelletCount() == 0)
             return TerminalReason.WIN;
 
         PacmanEntity pacman = getPacman();
@@ -303,14 +493,17 @@ public class Maze implements Disposable {
             default -> 8;
         };
 
-        Color[] colors = new Color[]{Color.CLEAR, Color.CYAN};
-        Vector2i spriteTile = new Vector2i(clampedScoreIndex, 0);
-        Particle particle = new Particle(bonusPointsSprite, spriteTile, colors);
-        particle.setPosition(ghost.getPosition());
-        particle.setVelocity(new Vector2d(0, 3));
-        particle.setVelocityFor(5);
-        particle.setLiveFor(40);
-        particles.add(particle);
+        // Particles are only visual, so headless games skip them entirely
+        if (!gameManager.getConfig().headless) {
+            Color[] colors = new Color[]{Color.CLEAR, Color.CYAN};
+            Vector2i spriteTile = new Vector2i(clampedScoreIndex, 0);
+            Particle particle = new Particle(this::getBonusPointsSprite, spriteTile, colors);
+            particle.setPosition(ghost.getPosition());
+            particle.setVelocity(new Vector2d(0, 3));
+            particle.setVelocityFor(5);
+            particle.setLiveFor(40);
+            particles.add(particle);
+        }
 
         // As more ghosts are eaten, the bonus points are worth more
         localNumGhostsEaten++;
@@ -323,7 +516,6 @@ public class Maze implements Disposable {
         // pellets also release ghosts when a certain number of them are eaten.
         if (state == TileState.PELLET) {
             gameManager.incrementScore(10);
-            pelletsRemaining--;
             tile.setState(TileState.SPACE);
 
             // Ghosts are released when a certain number of pellets are eaten. The
@@ -335,15 +527,11 @@ public class Maze implements Disposable {
             // Allow a handicap to delay the speed changes per-level
             // makes the game easier
             level = Math.max(1, level - gameManager.getConfig().handicap);
-            int[] bounds = switch (level) {
-                case 1 -> new int[]{0, 0, 30, 60};
-                case 2 -> new int[]{0, 0, 0, 50};
-                default -> new int[]{0, 0, 0, 0};
-            };
+            int[] bounds = GHOST_RELEASE_PELLETS[Math.min(level, GHOST_RELEASE_PELLETS.length) - 1];
 
             int ghostIndex = 0;
-            for (Entity temp : entities) {
-                if (!(temp instanceof GhostEntity ghost))
+            for (int i = 0; i < entities.size(); i++) {
+                if (!(entities.get(i) instanceof GhostEntity ghost))
                     continue;
 
                 int bound = bounds[Math.min(ghostIndex, bounds.length - 1)];
@@ -360,8 +548,8 @@ public class Maze implements Disposable {
             }
         } else if (state == TileState.POWER_PELLET) {
             localNumGhostsEaten = 0;
+            decisionEvents++;
             gameManager.incrementScore(50);
-            pelletsRemaining--;
             tile.setState(TileState.SPACE);
 
             // Allow a handicap to delay the speed changes per-level
@@ -374,8 +562,8 @@ public class Maze implements Disposable {
                 levelIndex = LEVEL_FRIGHT_TIMES.length - 1;
 
             frightenedTimer = LEVEL_FRIGHT_TIMES[levelIndex];
-            for (Entity temp : entities) {
-                if (temp instanceof GhostEntity ghost) {
+            for (int i = 0; i < entities.size(); i++) {
+                if (entities.get(i) instanceof GhostEntity ghost) {
                     ghost.setState(GhostState.FRIGHTENED);
                 }
             }
@@ -385,7 +573,7 @@ public class Maze implements Disposable {
         }
 
         // Once 70 pellets are eaten, the first fruit is released
-        int pelletsEaten = totalPellets - pelletsRemaining;
+        int pelletsEaten = totalPellets - pellets.getPelletCount();
         if (pelletsEaten == 70 || pelletsEaten == 170) {
             spawnFruit();
         }
@@ -398,17 +586,19 @@ public class Maze implements Disposable {
         entities.removeIf(entity -> entity instanceof FruitEntity);
         FruitEntity.Config config = new FruitEntity.Config();
         config.spawnPixel = new Vector2d(fruitSpawnPixel);
+        config.ticksLeft = gameManager.getRandom().nextInt(9 * 60, 10 * 60);
 
         // Fire the event to allow the fruit to be customized
-        EntityPreSpawnEvent event = new EntityPreSpawnEvent(this, EntityType.FRUIT, config);
-        gameManager.getEvents().fireEvent(event);
-        if (event.isCancelled())
-            return;
+        EventSystem events = gameManager.getEvents();
+        if (events.hasListeners(EntityPreSpawnEvent.class)) {
+            EntityPreSpawnEvent event = events.fireEvent(new EntityPreSpawnEvent(this, EntityType.FRUIT, config));
+            if (event.isCancelled())
+                return;
+            config = (FruitEntity.Config) event.getConfig();
+        }
 
-        FruitEntity fruit = new FruitEntity(this, (FruitEntity.Config) event.getConfig());
-        EntitySpawnEvent spawnEvent = new EntitySpawnEvent(fruit);
-        gameManager.getEvents().fireEvent(spawnEvent);
-        if (spawnEvent.isCancelled())
+        FruitEntity fruit = new FruitEntity(this, config);
+        if (events.hasListeners(EntitySpawnEvent.class) && events.fireEvent(new EntitySpawnEvent(fruit)).isCancelled())
             return;
 
         entities.add(fruit);
@@ -448,49 +638,71 @@ public class Maze implements Disposable {
             localChaseCounter = LEVEL_STATES[levelIndex][ghostChaseIndex++];
 
             // Fire an event to allow the chase/scatter times to be customized
-            GlobalBehaviorEvent event = new GlobalBehaviorEvent(this, isGhostChase, localChaseCounter);
-            gameManager.getEvents().fireEvent(event);
-            isGhostChase = event.isChaseBehavior();
-            localChaseCounter = event.getTimeLeft();
+            EventSystem events = gameManager.getEvents();
+            if (events.hasListeners(GlobalBehaviorEvent.class)) {
+                if (behaviorEvent == null)
+                    behaviorEvent = new GlobalBehaviorEvent(this, isGhostChase, localChaseCounter);
+                behaviorEvent.setChaseBehavior(isGhostChase);
+                behaviorEvent.setTimeLeft(localChaseCounter);
+                events.fireEvent(behaviorEvent);
+                isGhostChase = behaviorEvent.isChaseBehavior();
+                localChaseCounter = behaviorEvent.getTimeLeft();
+            }
         }
 
         // Must be indexed to allow modification of entities list
+        long start = Phase.ENTITY_UPDATE.start();
         for (int i = 0; i < entities.size(); i++) {
             Entity entity = entities.get(i);
             entity.update();
         }
+        Phase.ENTITY_UPDATE.stop(start);
 
         // Remove dead ones
-        Iterator<Entity> iterator = entities.iterator();
-        while (iterator.hasNext()) {
-            Entity entity = iterator.next();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity.isRemove()) {
-                EntityRemoveEvent event = new EntityRemoveEvent(entity);
-                gameManager.getEvents().fireEvent(event);
-                if (event.isCancelled())
+                EventSystem events = gameManager.getEvents();
+                if (events.hasListeners(EntityRemoveEvent.class) && events.fireEvent(new EntityRemoveEvent(entity)).isCancelled())
                     continue;
 
-                iterator.remove();
+                entities.remove(i--);
             }
         }
     }
 
+    private @NotNull GrayscaleSpriteSheet getBonusPointsSprite() {
+        if (bonusPointsSprite == null)
+            bonusPointsSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/bonus-points-sprite.png")), new Vector2i(8 * 4, 8 * 2));
+        return bonusPointsSprite;
+    }
+
+    /**
+     * Loads the sprites needed to render this maze, if they have not been
+     * loaded yet.
+     */
+    private void loadSprites() {
+        if (levelSprite != null)
+            return;
+
+        levelSprite = new Sprite(new Texture(Gdx.files.internal("mazes/" + template.getName() + "/render.png")));
+        pelletSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/pellet.png")), 8);
+        pelletSprite.setColors(Color.CLEAR, new Color(0xffb897ff));
+        powerPelletSprite = new GrayscaleSpriteSheet(new Texture(Gdx.files.internal("sprites/power-pellet.png")), 8);
+        powerPelletSprite.setColors(Color.CLEAR, new Color(0xffb897ff));
+    }
+
     public void render(@NotNull SpriteBatch batch) {
+        loadSprites();
         batch.draw(levelSprite, 0, 0);
 
         // Power pellets should flicker on and off
         boolean flicker = ticks % 20 < 10;
 
-        for (int y = 0; y < tiles.length; y++) {
-            for (int x = 0; x < tiles[y].length; x++) {
-                Tile tile = tiles[y][x];
-                if (tile.getState() == TileState.PELLET) {
-                    pelletSprite.render(batch, x * TILE_SIZE, y * TILE_SIZE);
-                } else if (tile.getState() == TileState.POWER_PELLET && flicker) {
-                    powerPelletSprite.render(batch, x * TILE_SIZE, y * TILE_SIZE);
-                }
-            }
-        }
+        // Draw each kind of pellet with 1 shader switch, instead of 1 per pellet
+        renderPellets(batch, pelletSprite, TileState.PELLET);
+        if (flicker)
+            renderPellets(batch, powerPelletSprite, TileState.POWER_PELLET);
 
         // Render particles (typically bonus points)
         Iterator<Particle> iterator = particles.iterator();
@@ -514,15 +726,29 @@ public class Maze implements Disposable {
         }
     }
 
+    private void renderPellets(@NotNull SpriteBatch batch, @NotNull GrayscaleSpriteSheet sprite, @NotNull TileState pellet) {
+        sprite.begin(batch);
+        int width = layout.getWidth();
+        for (int y = 0; y < layout.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                if (getState(y * width + x) == pellet)
+                    sprite.draw(batch, x * TILE_SIZE, y * TILE_SIZE);
+            }
+        }
+        sprite.end(batch);
+    }
+
     @Override
     public void dispose() {
         for (Entity entity : entities) {
             entity.dispose();
         }
-        levelSprite.getTexture().dispose();
-        pelletSprite.dispose();
-        powerPelletSprite.dispose();
-        bonusPointsSprite.dispose();
-        fruitSprite.dispose();
+        if (levelSprite != null) {
+            levelSprite.getTexture().dispose();
+            pelletSprite.dispose();
+            powerPelletSprite.dispose();
+        }
+        if (bonusPointsSprite != null)
+            bonusPointsSprite.dispose();
     }
 }
@@ -0,0 +1,190 @@
+package com.buaisociety.pacman.maze;
+
+import com.buaisociety.pacman.entity.Direction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The parts of a level that never change during a game: walls, tunnels, the
+ * ghost pen, and everything that can be computed from them.
+ *
+ * <p>1 layout is created per {@link MazeTemplate}, and shared by every
+ * {@link Maze} playing that level, on every thread. Each maze only stores
+ * which pellets are left on top of it. Tiles with a pellet are stored as
+ * {@link TileState#SPACE} here, so passability can always be answered
+ * without looking at the pellets.
+ *
+ * <p>Tiles are identified by their index, <code>y * width + x</code>.
+ * Immutable.
+ */
+public final class MazeLayout {
+
+    private static final int DIRECTIONS = Direction.values().length;
+
+    private final int width;
+    private final int height;
+    private final byte @NotNull [] states;  // TileState ordinals, without pellets
+    private final long @NotNull [] pellets;  // the pellets at the start of the level, see PelletIndex
+    private final long @NotNull [] powerPellets;
+    private final boolean @NotNull [] passable;
+    private final boolean @NotNull [] junctions;
+    private final int @NotNull [] neighbors;  // [index * DIRECTIONS + direction] -> index, wrapped
+    private final int @NotNull [] wrapX;  // x + width -> x wrapped into the maze, for -width <= x < 2 * width
+    private final int @NotNull [] wrapY;  // same as wrapX, for y
+
+    /**
+     * Splits the given tile grid into the layout and the starting pellets.
+     *
+     * @param tiles the tile grid, indexed by <code>[y][x]</code>
+     */
+    MazeLayout(@NotNull TileState[][] tiles) {
+        this.height = tiles.length;
+        this.width = tiles[0].length;
+        // PelletRays stores each row and column in a long
+        if (width > Long.SIZE || height > Long.SIZE)
+            throw new IllegalArgumentException("Maze is too large: " + width + "x" + height);
+
+        int size = width * height;
+        this.states = new byte[size];
+        this.pellets = new long[(size + Long.SIZE - 1) / Long.SIZE];
+        this.powerPellets = new long[pellets.length];
+        this.passable = new boolean[size];
+        this.junctions = new boolean[size];
+        this.neighbors = new int[size * DIRECTIONS];
+        this.wrapX = createWrapTable(width);
+        this.wrapY = createWrapTable(height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                TileState state = tiles[y][x];
+                boolean isPellet = state == TileState.PELLET || state == TileState.POWER_PELLET;
+                int index = y * width + x;
+                states[index] = (byte) (isPellet ? TileState.SPACE : state).ordinal();
+                if (isPellet)
+                    pellets[index >>> 6] |= 1L << index;
+                if (state == TileState.POWER_PELLET)
+                    powerPellets[index >>> 6] |= 1L << index;
+                passable[index] = state.isPassable();
+            }
+        }
+
+        for (int index = 0; index < size; index++) {
+            int x = index % width;
+            int y = index / width;
+            int exits = 0;
+            for (Direction direction : Direction.values()) {
+                int neighbor = toIndex(x + direction.getDx(), y + direction.getDy());
+                neighbors[index * DIRECTIONS + direction.ordinal()] = neighbor;
+                if (passable[neighbor])
+                    exits++;
+            }
+            junctions[index] = passable[index] && exits >= 3;
+        }
+    }
+
+    private static int @NotNull [] createWrapTable(int size) {
+        int[] table = new int[size * 3];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = i % size;
+        }
+        return table;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of tiles in the maze.
+     *
+     * @return the number of tiles
+     */
+    public int getSize() {
+        return states.length;
+    }
+
+    /**
+     * Returns the index of the tile at the given position. Positions outside
+     * the maze wrap around to the other side, like the tunnels do.
+     *
+     * @param x the x-coordinate of the tile
+     * @param y the y-coordinate of the tile
+     * @return the index of the tile
+     */
+    public int toIndex(int x, int y) {
+        // Neighbors of tiles on the edge are just outside the maze, and are
+        // looked up in the tables. Anything further away is rare.
+        x = x >= -width && x < 2 * width ? wrapX[x + width] : Math.floorMod(x, width);
+        y = y >= -height && y < 2 * height ? wrapY[y + height] : Math.floorMod(y, height);
+        return y * width + x;
+    }
+
+    /**
+     * Returns the state of the tile, ignoring pellets: tiles that start with
+     * a pellet are {@link TileState#SPACE}.
+     *
+     * @param index the index of the tile
+     * @return the state of the tile without its pellet
+     */
+    public @NotNull TileState getState(int index) {
+        return TileState.VALUES[states[index]];
+    }
+
+    /**
+     * Same as {@link TileState#isPassable()} for the tile. Eating pellets
+     * never changes this.
+     *
+     * @param index the index of the tile
+     * @return true if the tile is passable to all entities
+     */
+    public boolean isPassable(int index) {
+        return passable[index];
+    }
+
+    /**
+     * Returns true if the tile is passable and has at least 3 passable
+     * neighbors. Everywhere else, an entity that can't turn around has at
+     * most 1 way to go.
+     *
+     * @param index the index of the tile
+     * @return true if the tile is a junction
+     */
+    public boolean isJunction(int index) {
+        return junctions[index];
+    }
+
+    /**
+     * Returns the index of the neighbor of the tile, wrapping around the
+     * edges of the maze.
+     *
+     * @param index the index of the tile
+     * @param direction the direction of the neighbor
+     * @return the index of the neighbor
+     */
+    public int getNeighbor(int index, @NotNull Direction direction) {
+        return neighbors[index * DIRECTIONS + direction.ordinal()];
+    }
+
+    /**
+     * Returns a new copy of the pellets (and power pellets) at the start of
+     * the level, 1 bit per tile index. Each {@link Maze} keeps its own copy.
+     *
+     * @return the starting pellets
+     */
+    long @NotNull [] createPellets() {
+        return pellets.clone();
+    }
+
+    /**
+     * Returns a new copy of the power pellets at the start of the level,
+     * 1 bit per tile index.
+     *
+     * @return the starting power pellets
+     */
+    long @NotNull [] createPowerPellets() {
+        return powerPellets.clone();
+    }
+}
@@ -0,0 +1,362 @@
+package com.buaisociety.pacman.maze;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.buaisociety.pacman.entity.Direction;
+import com.buaisociety.pacman.entity.GhostEntity;
+import com.buaisociety.pacman.entity.behavior.Behavior;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector2i;
+import org.joml.Vector2ic;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * The parsed, immutable contents of one level folder in
+ * <code>./assets/mazes</code>.
+ *
+ * <p>Loading a level means reading json files, decoding the maze image, and
+ * looking up ghost behaviors by reflection. Since hundreds of games load the
+ * same levels over and over again, each level is only loaded once per process
+ * and shared by every {@link Maze} created from it. Instances must never be
+ * modified after they are loaded.
+ */
+public final class MazeTemplate {
+
+    private static final @NotNull ObjectMapper MAPPER = new ObjectMapper();
+    private static final @NotNull Map<String, MazeTemplate> TEMPLATES = new ConcurrentHashMap<>();
+    private static final @NotNull Map<String, List<String>> LEVEL_PRESETS = new ConcurrentHashMap<>();
+
+    private final @NotNull String name;
+    private final @NotNull MazeLayout layout;
+    private final @NotNull Vector2i fruitSpawnPixel;
+    private final @NotNull Vector2i pacmanSpawnPixel;
+    private final @NotNull Vector2i ghostRevivePixel;
+    private final @NotNull List<GhostTemplate> ghosts;
+    private final @NotNull PathOracle pathOracle;
+    private final @NotNull RayTable rayTable;
+    private final @NotNull PelletRays pelletRays;
+
+    private MazeTemplate(
+        @NotNull String name,
+        @NotNull TileState[][] tiles,
+        @NotNull Vector2i fruitSpawnPixel,
+        @NotNull Vector2i pacmanSpawnPixel,
+        @NotNull Vector2i ghostRevivePixel,
+        @NotNull List<GhostTemplate> ghosts
+    ) {
+        this.name = name;
+        this.layout = new MazeLayout(tiles);
+        this.fruitSpawnPixel = fruitSpawnPixel;
+        this.pacmanSpawnPixel = pacmanSpawnPixel;
+        this.ghostRevivePixel = ghostRevivePixel;
+        this.ghosts = Collections.unmodifiableList(ghosts);
+        this.pathOracle = new PathOracle(tiles);
+        this.rayTable = new RayTable(tiles);
+        this.pelletRays = new PelletRays(tiles);
+    }
+
+    /**
+     * Returns the template for the given level, loading it the first time it
+     * is requested.
+     *
+     * @param name the name of the level, matching a folder in <code>./assets/mazes</code>
+     * @return the shared template for the level
+     */
+    public static @NotNull MazeTemplate get(@NotNull String name) {
+        return TEMPLATES.computeIfAbsent(name, MazeTemplate::load);
+    }
+
+    /**
+     * Returns the ordered list of level names in the given levels preset
+     * (like <code>levels.json</code>), loading it the first time it is
+     * requested.
+     *
+     * @param preset the path to the levels preset
+     * @return the unmodifiable list of level names
+     */
+    public static @NotNull List<String> getLevels(@NotNull String preset) {
+        return LEVEL_PRESETS.computeIfAbsent(preset, MazeTemplate::loadLevels);
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the walls, tunnels and ghost pen of this level, shared by every
+     * maze playing it.
+     *
+     * @return the shared layout
+     */
+    public @NotNull MazeLayout getLayout() {
+        return layout;
+    }
+
+    public @NotNull Vector2ic getFruitSpawnPixel() {
+        return fruitSpawnPixel;
+    }
+
+    public @NotNull Vector2ic getPacmanSpawnPixel() {
+        return pacmanSpawnPixel;
+    }
+
+    public @NotNull Vector2ic getGhostRevivePixel() {
+        return ghostRevivePixel;
+    }
+
+    public @NotNull List<GhostTemplate> getGhosts() {
+        return ghosts;
+    }
+
+    /**
+     * Returns the shortest path tables for this layout, shared by every game.
+     *
+     * @return the path oracle for this layout
+     */
+    public @NotNull PathOracle getPathOracle() {
+        return pathOracle;
+    }
+
+    /**
+     * Returns the wall distance tables for this layout, shared by every game.
+     *
+     * @return the wall ray table for this layout
+     */
+    public @NotNull RayTable getRayTable() {
+        return rayTable;
+    }
+
+    /**
+     * Returns the pellet distance tables for a fresh copy of this layout.
+     * This must not be modified, {@link Maze} copies it before eating any
+     * pellets.
+     *
+     * @return the pellet rays of the fresh layout
+     */
+    public @NotNull PelletRays getPelletRays() {
+        return pelletRays;
+    }
+
+    private static @NotNull List<String> loadLevels(@NotNull String preset) {
+        JsonNode levelsJson;
+        try {
+            levelsJson = MAPPER.readTree(Gdx.files.internal(preset).readString());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load " + preset, e);
+        }
+
+        List<String> levels = new ArrayList<>();
+        for (JsonNode level : levelsJson.get("levels")) {
+            levels.add(level.asText());
+        }
+        return Collections.unmodifiableList(levels);
+    }
+
+    private static @NotNull MazeTemplate load(@NotNull String name) {
+        JsonNode mazeConfigJson;
+        try {
+            mazeConfigJson = MAPPER.readTree(Gdx.files.internal("mazes/" + name + "/config.json").readString());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load maze config for " + name, e);
+        }
+
+        Pixmap pixmap = new Pixmap(Gdx.files.internal("mazes/" + name + "/maze.png"));
+        TileState[][] tiles = new TileState[pixmap.getHeight()][pixmap.getWidth()];
+        for (int y = 0; y < pixmap.getHeight(); y++) {
+            for (int x = 0; x < pixmap.getWidth(); x++) {
+                int pixel = pixmap.getPixel(x, y);
+                Color color = new Color(pixel);
+                int red = (int) (color.r * 255);  // grayscale, so r=g=b
+
+                // This is a 4-bit grayscale image, so we can only have 16 colors
+                int normalized = red / (256 / (TileState.values().length - 1));
+                tiles[pixmap.getHeight() - 1 - y][x] = switch (normalized) {
+                    case 0 -> TileState.SPACE;
+                    case 1 -> TileState.TUNNEL;
+                    case 2 -> TileState.PELLET;
+                    case 3 -> TileState.POWER_PELLET;
+                    case 4 -> TileState.GHOST_PEN;
+                    case 5 -> TileState.WALL;
+                    default -> throw new IllegalStateException("Unexpected value: " + normalized);
+                };
+            }
+        }
+        pixmap.dispose();
+
+        Vector2i fruitSpawnPixel = parseVector(mazeConfigJson.get("fruit_spawn_position"));
+        Vector2i pacmanSpawnPixel = parseVector(mazeConfigJson.get("pacman_spawn_position"));
+        Vector2i ghostRevivePixel = parseVector(mazeConfigJson.get("ghost_revive_position"));
+
+        List<GhostTemplate> ghosts = new ArrayList<>();
+        for (JsonNode ghostNode : mazeConfigJson.get("ghosts")) {
+            ghosts.add(loadGhost(ghostNode, ghostRevivePixel));
+        }
+
+        return new MazeTemplate(name, tiles, fruitSpawnPixel, pacmanSpawnPixel, ghostRevivePixel, ghosts);
+    }
+
+    private static @NotNull GhostTemplate loadGhost(@NotNull JsonNode ghostNode, @NotNull Vector2i ghostRevivePixel) {
+        String ghostName = ghostNode.get("name").asText();  // expect a value like 'ghosts/inky.json'
+        Vector2i ghostSpawnPixel = parseVector(ghostNode.get("spawn_position"));
+        Direction ghostSpawnDirection = Direction.valueOf(ghostNode.get("spawn_direction").asText().toUpperCase(Locale.ROOT));
+        boolean isReleased = ghostNode.get("is_released").asBoolean();
+        Vector2i ghostScatterTile = parseVector(ghostNode.get("scatter_tile"));
+
+        JsonNode ghostJson;
+        try {
+            ghostJson = MAPPER.readTree(Gdx.files.internal(ghostName).readString());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load ghost config for " + ghostName, e);
+        }
+
+        String behaviorClassPath = ghostJson.get("chase_behavior").asText();
+        boolean isElroy = ghostJson.get("is_elroy").asBoolean();
+        Constructor<? extends Behavior> behaviorConstructor;
+        try {
+            behaviorConstructor = Class.forName(behaviorClassPath).asSubclass(Behavior.class).getConstructor();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load behavior for " + ghostName, e);
+        }
+
+        JsonNode colorJson = ghostJson.get("colors");
+        return new GhostTemplate(
+            ghostName,
+            isElroy,
+            behaviorConstructor,
+            ghostScatterTile,
+            ghostSpawnPixel,
+            ghostSpawnDirection,
+            isReleased,
+            ghostRevivePixel,
+            parseColors(colorJson.get("alive")),
+            parseColors(colorJson.get("frightened")),
+            parseColors(colorJson.get("flash")),
+            parseColors(colorJson.get("eaten"))
+        );
+    }
+
+    private static @NotNull Color[] parseColors(@NotNull JsonNode node) {
+        return StreamSupport.stream(node.spliterator(), false)
+            .map(MazeTemplate::parseColor)
+            .toArray(Color[]::new);
+    }
+
+    private static @NotNull Color parseColor(@NotNull JsonNode node) {
+        return new Color(
+            (float) node.get("r").asDouble(),
+            (float) node.get("g").asDouble(),
+            (float) node.get("b").asDouble(),
+            (float) node.get("a").asDouble()
+        );
+    }
+
+    private static @NotNull Vector2i parseVector(@NotNull JsonNode node) {
+        return new Vector2i(node.get("x").asInt(), node.get("y").asInt());
+    }
+
+
+    /**
+     * The parsed spawn data for 1 ghost in a level, combined with the ghost's
+     * own json file (like <code>ghosts/inky.json</code>).
+     */
+    public static final class GhostTemplate {
+
+        private final @NotNull String name;
+        private final boolean isElroy;
+        private final @NotNull Constructor<? extends Behavior> chase;
+        private final @NotNull Vector2i scatterTile;
+        private final @NotNull Vector2i spawnPixel;
+        private final @NotNull Direction spawnDirection;
+        private final boolean spawnReleased;
+        private final @NotNull Vector2i reviveTile;
+        private final @NotNull Color[] colorsAlive;
+        private final @NotNull Color[] colorsFrightened;
+        private final @NotNull Color[] colorsFlash;
+        private final @NotNull Color[] colorsEaten;
+
+        private GhostTemplate(
+            @NotNull String name,
+            boolean isElroy,
+            @NotNull Constructor<? extends Behavior> chase,
+            @NotNull Vector2i scatterTile,
+            @NotNull Vector2i spawnPixel,
+            @NotNull Direction spawnDirection,
+            boolean spawnReleased,
+            @NotNull Vector2i reviveTile,
+            @NotNull Color[] colorsAlive,
+            @NotNull Color[] colorsFrightened,
+            @NotNull Color[] colorsFlash,
+            @NotNull Color[] colorsEaten
+        ) {
+            this.name = name;
+            this.isElroy = isElroy;
+            this.chase = chase;
+            this.scatterTile = scatterTile;
+            this.spawnPixel = spawnPixel;
+            this.spawnDirection = spawnDirection;
+            this.spawnReleased = spawnReleased;
+            this.reviveTile = reviveTile;
+            this.colorsAlive = colorsAlive;
+            this.colorsFrightened = colorsFrightened;
+            this.colorsFlash = colorsFlash;
+            this.colorsEaten = colorsEaten;
+        }
+
+        /**
+         * Returns the path to the ghost's json file, like <code>ghosts/inky.json</code>.
+         *
+         * @return the path to the ghost's json file
+         */
+        public @NotNull String getName() {
+            return name;
+        }
+
+        /**
+         * Creates a new chase behavior for the ghost. Behaviors may hold state,
+         * so every ghost gets its own instance.
+         *
+         * @return a new chase behavior
+         */
+        public @NotNull Behavior createChaseBehavior() {
+            try {
+                return chase.newInstance();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to create behavior for " + name, e);
+            }
+        }
+
+        /**
+         * Creates a fresh ghost config for a new game. Since configs can be
+         * modified by {@link com.buaisociety.pacman.event.EntityPreSpawnEvent}
+         * listeners, every call returns new copies of the mutable values.
+         *
+         * @return a new ghost config
+         */
+        public @NotNull GhostEntity.Config createConfig() {
+            GhostEntity.Config config = new GhostEntity.Config();
+            config.isElroy = isElroy;
+            config.chase = createChaseBehavior();
+            config.scatterTile = new Vector2i(scatterTile);
+            config.spawnPixel = new Vector2i(spawnPixel);
+            config.spawnDirection = spawnDirection;
+            config.spawnReleased = spawnReleased;
+            config.reviveTile = new Vector2i(reviveTile);
+            config.colorsAlive = colorsAlive.clone();
+            config.colorsFrightened = colorsFrightened.clone();
+            config.colorsFlash = colorsFlash.clone();
+            config.colorsEaten = colorsEaten.clone();
+            return config;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.buaisociety.pacman.maze;
+
+import com.buaisociety.pacman.entity.Direction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector2ic;
+
+import java.util.Arrays;
+
+/**
+ * Answers shortest path questions between any 2 tiles of a maze layout in
+ * constant time.
+ *
+ * <p>Walls never change during a level, so the distance between every pair
+ * of walkable tiles (and the first step of a shortest path between them) is
+ * computed once per {@link MazeTemplate}, and shared read-only by every game
+ * playing that level.
+ *
+ * <p>Every tile except {@link TileState#WALL} is walkable, so ghosts inside
+ * the ghost pen still have a distance. Paths may wrap around the edges of the
+ * maze, just like entities do when they go through a tunnel.
+ */
+public final class PathOracle {
+
+    /**
+     * Returned by {@link #getDistance(int, int, int, int)} when there is no
+     * path between the tiles.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final @NotNull Direction[] DIRECTIONS = Direction.values();
+    private static final byte NO_STEP = -1;
+
+    private final int width;
+    private final int height;
+    private final int[] nodes;  // tile index (y * width + x) -> node index, or -1 for walls
+    private final int[] tiles;  // node index -> tile index
+    private final int nodeCount;
+    private final short[] distances;  // [from * nodeCount + to]
+    private final byte[] nextSteps;  // [from * nodeCount + to] -> Direction ordinal
+    private final short[] orders;  // [from * nodeCount + rank] -> node index, closest first
+    private final short[] reachable;  // [from] -> number of nodes reachable from that node
+
+    /**
+     * Computes the path tables for the given tile grid.
+     *
+     * @param tiles the tile grid, indexed by <code>[y][x]</code>
+     */
+    public PathOracle(@NotNull TileState[][] tiles) {
+        this.height = tiles.length;
+        this.width = tiles[0].length;
+        this.nodes = new int[width * height];
+
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                nodes[y * width + x] = tiles[y][x] != TileState.WALL ? count++ : -1;
+            }
+        }
+        this.nodeCount = count;
+        this.tiles = new int[nodeCount];
+        for (int tile = 0; tile < nodes.length; tile++) {
+            if (nodes[tile] != -1)
+                this.tiles[nodes[tile]] = tile;
+        }
+
+        // Neighbors of each node, in Direction order, or -1 if that neighbor is a wall
+        int[] neighbors = new int[nodeCount * DIRECTIONS.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int node = nodes[y * width + x];
+                if (node == -1)
+                    continue;
+
+                for (Direction direction : DIRECTIONS) {
+                    int nextX = Math.floorMod(x + direction.getDx(), width);
+                    int nextY = Math.floorMod(y + direction.getDy(), height);
+                    neighbors[node * DIRECTIONS.length + direction.ordinal()] = nodes[nextY * width + nextX];
+                }
+            }
+        }
+
+        this.distances = new short[nodeCount * nodeCount];
+        this.nextSteps = new byte[nodeCount * nodeCount];
+        this.orders = new short[nodeCount * nodeCount];
+        this.reachable = new short[nodeCount];
+        Arrays.fill(distances, (short) UNREACHABLE);
+        Arrays.fill(nextSteps, NO_STEP);
+
+        // 1 breadth first search per node. The first step of each path is
+        // inherited from the node it was discovered from, and the order nodes
+        // leave the queue is the order of increasing distance.
+        int[] queue = new int[nodeCount];
+        for (int from = 0; from < nodeCount; from++) {
+            int row = from * nodeCount;
+            distances[row + from] = 0;
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = from;
+            while (head < tail) {
+                int current = queue[head++];
+                for (int i = 0; i < DIRECTIONS.length; i++) {
+                    int next = neighbors[current * DIRECTIONS.length + i];
+                    if (next == -1 || distances[row + next] != UNREACHABLE)
+                        continue;
+
+                    distances[row + next] = (short) (distances[row + current] + 1);
+                    nextSteps[row + next] = current == from ? (byte) i : nextSteps[row + current];
+                    queue[tail++] = next;
+                }
+            }
+
+            for (int rank = 0; rank < tail; rank++) {
+                orders[row + rank] = (short) queue[rank];
+            }
+            reachable[from] = (short) tail;
+        }
+    }
+
+    /**
+     * Returns the width of the maze, in tiles.
+     *
+     * @return the width of the maze
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the maze, in tiles.
+     *
+     * @return the height of the maze
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the length of the shortest path between 2 tiles. Coordinates
+     * outside the maze are wrapped.
+     *
+     * @param fromX the x-coordinate of the starting tile
+     * @param fromY the y-coordinate of the starting tile
+     * @param toX the x-coordinate of the destination tile
+     * @param toY the y-coordinate of the destination tile
+     * @return the number of steps, or {@link #UNREACHABLE} if there is no path
+     */
+    public int getDistance(int fromX, int fromY, int toX, int toY) {
+        int from = nodeAt(fromX, fromY);
+        int to = nodeAt(toX, toY);
+        if (from == -1 || to == -1)
+            return isSameTile(fromX, fromY, toX, toY) ? 0 : UNREACHABLE;
+
+        return distances[from * nodeCount + to];
+    }
+
+    /**
+     * Returns the length of the shortest path between 2 tiles.
+     *
+     * @param from the starting tile
+     * @param to the destination tile
+     * @return the number of steps, or {@link #UNREACHABLE} if there is no path
+     */
+    public int getDistance(@NotNull Vector2ic from, @NotNull Vector2ic to) {
+        return getDistance(from.x(), from.y(), to.x(), to.y());
+    }
+
+    /**
+     * Returns the direction of the first step along a shortest path between
+     * 2 tiles. Coordinates outside the maze are wrapped.
+     *
+     * @param fromX the x-coordinate of the starting tile
+     * @param fromY the y-coordinate of the starting tile
+     * @param toX the x-coordinate of the destination tile
+     * @param toY the y-coordinate of the destination tile
+     * @return the first step, or null if the tiles are the same or there is no path
+     */
+    public @Nullable Direction getNextStep(int fromX, int fromY, int toX, int toY) {
+        int from = nodeAt(fromX, fromY);
+        int to = nodeAt(toX, toY);
+        if (from == -1 || to == -1)
+            return null;
+
+        byte step = nextSteps[from * nodeCount + to];
+        return step == NO_STEP ? null : DIRECTIONS[step];
+    }
+
+    /**
+     * Returns the direction of the first step along a shortest path between
+     * 2 tiles.
+     *
+     * @param from the starting tile
+     * @param to the destination tile
+     * @return the first step, or null if the tiles are the same or there is no path
+     */
+    public @Nullable Direction getNextStep(@NotNull Vector2ic from, @NotNull Vector2ic to) {
+        return getNextStep(from.x(), from.y(), to.x(), to.y());
+    }
+
+    /**
+     * Returns the number of tiles reachable from the given tile, including
+     * the tile itself.
+     *
+     * @param fromX the x-coordinate of the starting tile
+     * @param fromY the y-coordinate of the starting tile
+     * @return the number of reachable tiles, or 0 if the tile is a wall
+     */
+    public int getReachableCount(int fromX, int fromY) {
+        int from = nodeAt(fromX, fromY);
+        return from == -1 ? 0 : reachable[from];
+    }
+
+    /**
+     * Returns the <code>rank</code>-th closest tile to the starting tile, where
+     * rank 0 is the starting tile itself. Iterating the ranks in order visits
+     * tiles in order of increasing path distance, which makes "find the
+     * closest tile that ..." searches stop as soon as they find a match.
+     *
+     * @param fromX the x-coordinate of the starting tile
+     * @param fromY the y-coordinate of the starting tile
+     * @param rank the rank, from 0 to {@link #getReachableCount(int, int)} (exclusive)
+     * @return the tile index (<code>y * width + x</code>) of the tile at that rank
+     */
+    public int getTileByDistance(int fromX, int fromY, int rank) {
+        int from = nodeAt(fromX, fromY);
+        return tiles[orders[from * nodeCount + rank]];
+    }
+
+    private int nodeAt(int x, int y) {
+        x = Math.floorMod(x, width);
+        y = Math.floorMod(y, height);
+        return nodes[y * width + x];
+    }
+
+    private boolean isSameTile(int fromX, int fromY, int toX, int toY) {
+        return Math.floorMod(fromX, width) == Math.floorMod(toX, width)
+            && Math.floorMod(fromY, height) == Math.floorMod(toY, height);
+    }
+}
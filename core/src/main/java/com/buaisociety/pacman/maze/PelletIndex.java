@@ -0,0 +1,201 @@
+package com.buaisociety.pacman.maze;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps track of which tiles of a {@link Maze} still have a pellet on them.
+ *
+ * <p>Pellets are stored as bitsets, 1 bit per tile in the order of
+ * {@link MazeLayout} tile indices, so each game only needs a few dozen longs
+ * for them. Counting pellets is a popcount, and looping over the pellets
+ * left skips 64 empty tiles at a time.
+ *
+ * <p>The index is updated every time a tile changes state (see
+ * {@link Tile#setState(TileState)}), so questions like "where is the closest
+ * pellet?" never have to scan the whole maze. Path distance queries walk the
+ * tiles in order of distance from the start (see {@link PathOracle}), and
+ * stop at the first pellet found. Once only a few pellets are left, it is
+ * cheaper to check each remaining pellet instead, so the index switches to
+ * that.
+ */
+public final class PelletIndex {
+
+    private final @NotNull Maze maze;
+    private final @NotNull PathOracle paths;
+    private final int width;
+    private final long @NotNull [] pellets;  // pellets and power pellets
+    private final long @NotNull [] powerPellets;
+
+    PelletIndex(@NotNull Maze maze, @NotNull PathOracle paths, @NotNull MazeLayout layout) {
+        this.maze = maze;
+        this.paths = paths;
+        this.width = layout.getWidth();
+        this.pellets = layout.createPellets();
+        this.powerPellets = layout.createPowerPellets();
+    }
+
+    /**
+     * Called when a tile changes state, to add or remove it from the index.
+     */
+    void update(int tile, @NotNull TileState state) {
+        set(pellets, tile, state == TileState.PELLET || state == TileState.POWER_PELLET);
+        set(powerPellets, tile, state == TileState.POWER_PELLET);
+    }
+
+    /**
+     * Returns true if the tile has a pellet or a power pellet on it.
+     *
+     * @param tile the index of the tile, see {@link MazeLayout}
+     * @return true if the tile has a pellet
+     */
+    public boolean hasPellet(int tile) {
+        return contains(pellets, tile);
+    }
+
+    /**
+     * Returns true if the tile has a power pellet on it.
+     *
+     * @param tile the index of the tile, see {@link MazeLayout}
+     * @return true if the tile has a power pellet
+     */
+    public boolean hasPowerPellet(int tile) {
+        return contains(powerPellets, tile);
+    }
+
+    /**
+     * Returns the number of pellets (including power pellets) left in the maze.
+     *
+     * @return the number of pellets left
+     */
+    public int getPelletCount() {
+        return count(pellets);
+    }
+
+    /**
+     * Returns the number of power pellets left in the maze.
+     *
+     * @return the number of power pellets left
+     */
+    public int getPowerPelletCount() {
+        return count(powerPellets);
+    }
+
+    /**
+     * Returns the pellet (or power pellet) with the shortest path from the
+     * given tile.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @return the closest pellet, or null if no pellet can be reached
+     */
+    public @Nullable Tile getNearestPellet(int x, int y) {
+        return toTile(nearestByPath(pellets, x, y));
+    }
+
+    /**
+     * Returns the power pellet with the shortest path from the given tile.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @return the closest power pellet, or null if no power pellet can be reached
+     */
+    public @Nullable Tile getNearestPowerPellet(int x, int y) {
+        return toTile(nearestByPath(powerPellets, x, y));
+    }
+
+    /**
+     * Returns the pellet (or power pellet) with the smallest manhattan
+     * distance from the given tile, ignoring walls and tunnels.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @return the closest pellet, or null if there are no pellets left
+     */
+    public @Nullable Tile getNearestPelletManhattan(int x, int y) {
+        return toTile(nearestByManhattan(pellets, x, y));
+    }
+
+    /**
+     * Returns the power pellet with the smallest manhattan distance from the
+     * given tile, ignoring walls and tunnels.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @return the closest power pellet, or null if there are no power pellets left
+     */
+    public @Nullable Tile getNearestPowerPelletManhattan(int x, int y) {
+        return toTile(nearestByManhattan(powerPellets, x, y));
+    }
+
+    private int nearestByPath(long @NotNull [] set, int x, int y) {
+        int size = count(set);
+        if (size == 0)
+            return -1;
+
+        // With only a few pellets left, checking each of them is cheaper than
+        // walking outwards until we bump into one
+        int reachable = paths.getReachableCount(x, y);
+        if (size * 4 < reachable) {
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int word = 0; word < set.length; word++) {
+                for (long bits = set[word]; bits != 0; bits &= bits - 1) {
+                    int tile = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    int distance = paths.getDistance(x, y, tile % width, tile / width);
+                    if (distance != PathOracle.UNREACHABLE && distance < bestDistance) {
+                        best = tile;
+                        bestDistance = distance;
+                    }
+                }
+            }
+            return best;
+        }
+
+        for (int rank = 0; rank < reachable; rank++) {
+            int tile = paths.getTileByDistance(x, y, rank);
+            if (contains(set, tile))
+                return tile;
+        }
+        return -1;
+    }
+
+    private int nearestByManhattan(long @NotNull [] set, int x, int y) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int word = 0; word < set.length; word++) {
+            for (long bits = set[word]; bits != 0; bits &= bits - 1) {
+                int tile = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                int distance = Math.abs(tile % width - x) + Math.abs(tile / width - y);
+                if (distance < bestDistance) {
+                    best = tile;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private @Nullable Tile toTile(int tile) {
+        return tile == -1 ? null : maze.getTile(tile);
+    }
+
+    private static boolean contains(long @NotNull [] set, int tile) {
+        return (set[tile >>> 6] & 1L << tile) != 0;
+    }
+
+    private static void set(long @NotNull [] set, int tile, boolean value) {
+        if (value)
+            set[tile >>> 6] |= 1L << tile;
+        else
+            set[tile >>> 6] &= ~(1L << tile);
+    }
+
+    private static int count(long @NotNull [] set) {
+        int count = 0;
+        for (long bits : set) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+}
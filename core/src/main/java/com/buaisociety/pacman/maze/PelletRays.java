@@ -0,0 +1,180 @@
+package com.buaisociety.pacman.maze;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Answers "how far is the nearest pellet in this direction?" for every tile
+ * of a {@link Maze} in constant time.
+ *
+ * <p>Rays go in the same 8 directions as {@link RayTable}, and also stop at
+ * the edge of the maze. Pellet rays pass through walls, so they only care
+ * about which tiles have a pellet (or power pellet) on them.
+ *
+ * <p>Each row and each column of pellets is stored in a long, so rays along
+ * a row or a column are a shift and a bit scan. Diagonal rays can't be
+ * answered that way, so their distances are stored in a table instead.
+ *
+ * <p>Unlike walls, pellets are eaten during the game, so each maze has its
+ * own table. It starts as a copy of the table for the fresh layout (see
+ * {@link MazeTemplate#getPelletRays()}), and only the diagonal rays that ran
+ * into a pellet are recomputed when that pellet is eaten.
+ */
+public final class PelletRays {
+
+    /**
+     * Returned by {@link #getPelletDistance(int, int, int, int)} when the ray
+     * leaves the maze before finding a pellet.
+     */
+    public static final int NO_PELLET = -1;
+
+    private static final int DIAGONALS = RayTable.DIRECTIONS / 2;  // the odd RayTable directions
+
+    private final int width;
+    private final int height;
+    private final long[] rows;  // [y], bit x is set if the tile has a pellet
+    private final long[] columns;  // [x], bit y is set if the tile has a pellet
+    private final short[] diagonals;  // [(y * width + x) * DIAGONALS + direction / 2]
+
+    /**
+     * Computes the pellet distances for the given tile grid.
+     *
+     * @param tiles the tile grid, indexed by <code>[y][x]</code>
+     */
+    public PelletRays(@NotNull TileState[][] tiles) {
+        this.height = tiles.length;
+        this.width = tiles[0].length;
+        if (width > Long.SIZE || height > Long.SIZE)
+            throw new IllegalArgumentException("Maze is too large: " + width + "x" + height);
+
+        this.rows = new long[height];
+        this.columns = new long[width];
+        this.diagonals = new short[width * height * DIAGONALS];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (tiles[y][x] == TileState.PELLET || tiles[y][x] == TileState.POWER_PELLET) {
+                    rows[y] |= 1L << x;
+                    columns[x] |= 1L << y;
+                }
+            }
+        }
+
+        // Each ray is "0 if this tile has a pellet, else 1 more than the ray
+        // of the next tile". Visit tiles so the next tile is always done first.
+        for (int direction = 1; direction < RayTable.DIRECTIONS; direction += 2) {
+            int dx = RayTable.DX[direction];
+            int dy = RayTable.DY[direction];
+            for (int i = 0; i < height; i++) {
+                int y = dy > 0 ? height - 1 - i : i;
+                for (int j = 0; j < width; j++) {
+                    int x = dx > 0 ? width - 1 - j : j;
+                    diagonals[(y * width + x) * DIAGONALS + direction / 2] = (short) compute(x, y, direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of the given table, which can then be updated
+     * independently.
+     *
+     * @param other the table to copy
+     */
+    public PelletRays(@NotNull PelletRays other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.rows = other.rows.clone();
+        this.columns = other.columns.clone();
+        this.diagonals = other.diagonals.clone();
+    }
+
+    /**
+     * Returns the number of steps from the given tile to the first pellet (or
+     * power pellet) in the given direction. A tile that has a pellet on it has
+     * a distance of 0.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @param dx the x step of the ray, -1, 0, or 1
+     * @param dy the y step of the ray, -1, 0, or 1
+     * @return the number of steps, or {@link #NO_PELLET} if the ray leaves the maze first
+     */
+    public int getPelletDistance(int x, int y, int dx, int dy) {
+        if (!RayTable.inBounds(x, y, width, height))
+            return NO_PELLET;
+
+        int direction = RayTable.getDirectionIndex(dx, dy);
+        if (dy == 0)
+            return scan(rows[y], x, dx);
+        if (dx == 0)
+            return scan(columns[x], y, dy);
+        return diagonals[(y * width + x) * DIAGONALS + direction / 2];
+    }
+
+    /**
+     * Returns the distance from bit <code>start</code> to the nearest set bit
+     * in the given direction, including the start itself.
+     */
+    private static int scan(long bits, int start, int step) {
+        if (step > 0) {
+            long ahead = bits >>> start;
+            return ahead == 0 ? NO_PELLET : Long.numberOfTrailingZeros(ahead);
+        } else {
+            long behind = bits << (Long.SIZE - 1 - start);
+            return behind == 0 ? NO_PELLET : Long.numberOfLeadingZeros(behind);
+        }
+    }
+
+    /**
+     * Called when a tile changes state. Walks backwards along each of the 4
+     * diagonal rays that end at the tile, and stops as soon as a ray is
+     * unchanged.
+     */
+    void update(int x, int y, @NotNull TileState state) {
+        boolean pellet = state == TileState.PELLET || state == TileState.POWER_PELLET;
+        if (hasPellet(x, y) == pellet)
+            return;
+
+        if (pellet) {
+            rows[y] |= 1L << x;
+            columns[x] |= 1L << y;
+        } else {
+            rows[y] &= ~(1L << x);
+            columns[x] &= ~(1L << y);
+        }
+
+        // The tile itself always changes (to or from 0), so every walk takes
+        // at least 1 step
+        for (int direction = 1; direction < RayTable.DIRECTIONS; direction += 2) {
+            int rayX = x;
+            int rayY = y;
+            while (RayTable.inBounds(rayX, rayY, width, height)) {
+                int index = (rayY * width + rayX) * DIAGONALS + direction / 2;
+                short distance = (short) compute(rayX, rayY, direction);
+                if (distance == diagonals[index])
+                    break;
+
+                diagonals[index] = distance;
+                rayX -= RayTable.DX[direction];
+                rayY -= RayTable.DY[direction];
+            }
+        }
+    }
+
+    private boolean hasPellet(int x, int y) {
+        return (rows[y] & 1L << x) != 0;
+    }
+
+    private int compute(int x, int y, int direction) {
+        if (hasPellet(x, y))
+            return 0;
+
+        int nextX = x + RayTable.DX[direction];
+        int nextY = y + RayTable.DY[direction];
+        if (!RayTable.inBounds(nextX, nextY, width, height))
+            return NO_PELLET;
+
+        int next = diagonals[(nextY * width + nextX) * DIAGONALS + direction / 2];
+        return next == NO_PELLET ? NO_PELLET : next + 1;
+    }
+}
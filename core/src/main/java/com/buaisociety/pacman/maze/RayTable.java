@@ -0,0 +1,124 @@
+package com.buaisociety.pacman.maze;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Answers "how far is the nearest wall in this direction?" for every tile of
+ * a maze layout in constant time.
+ *
+ * <p>Rays go in 1 of 8 directions: the 4 cardinal directions and the 4
+ * diagonals, given as a <code>(dx, dy)</code> step where each component is
+ * -1, 0, or 1. Rays stop at the edge of the maze, they do not wrap around
+ * through tunnels. Walls never change during a level, so the table is
+ * computed once per {@link MazeTemplate}, and shared read-only by every game
+ * playing that level.
+ */
+public final class RayTable {
+
+    /**
+     * The number of directions a ray can go in.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * Returned by {@link #getWallDistance(int, int, int, int)} when the ray
+     * leaves the maze before hitting a wall.
+     */
+    public static final int NO_WALL = -1;
+
+    // Direction index -> step, going clockwise starting from up
+    static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    static final int[] DY = {1, 1, 0, -1, -1, -1, 0, 1};
+
+    // (dy + 1) * 3 + (dx + 1) -> direction index, or -1 for (0, 0)
+    private static final int[] INDICES = {5, 4, 3, 6, -1, 2, 7, 0, 1};
+
+    private final int width;
+    private final int height;
+    private final short[] wallDistances;  // [(y * width + x) * DIRECTIONS + direction]
+
+    /**
+     * Computes the wall distances for the given tile grid.
+     *
+     * @param tiles the tile grid, indexed by <code>[y][x]</code>
+     */
+    public RayTable(@NotNull TileState[][] tiles) {
+        this.height = tiles.length;
+        this.width = tiles[0].length;
+        this.wallDistances = new short[width * height * DIRECTIONS];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int direction = 0; direction < DIRECTIONS; direction++) {
+                    int steps = 0;
+                    int rayX = x;
+                    int rayY = y;
+                    while (inBounds(rayX, rayY, width, height) && tiles[rayY][rayX] != TileState.WALL) {
+                        rayX += DX[direction];
+                        rayY += DY[direction];
+                        steps++;
+                    }
+
+                    boolean hitWall = inBounds(rayX, rayY, width, height);
+                    wallDistances[(y * width + x) * DIRECTIONS + direction] = (short) (hitWall ? steps : NO_WALL);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of steps from the given tile to the first wall in
+     * the given direction. Taking that many steps lands on the wall tile, so
+     * a tile that is a wall itself has a distance of 0.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @param dx the x step of the ray, -1, 0, or 1
+     * @param dy the y step of the ray, -1, 0, or 1
+     * @return the number of steps, or {@link #NO_WALL} if the ray leaves the maze first
+     */
+    public int getWallDistance(int x, int y, int dx, int dy) {
+        if (!inBounds(x, y, width, height))
+            return NO_WALL;
+
+        return wallDistances[(y * width + x) * DIRECTIONS + getDirectionIndex(dx, dy)];
+    }
+
+    /**
+     * Returns the number of steps from the given tile to the last tile inside
+     * the maze in the given direction, ignoring walls.
+     *
+     * @param x the x-coordinate of the starting tile
+     * @param y the y-coordinate of the starting tile
+     * @param dx the x step of the ray, -1, 0, or 1
+     * @param dy the y step of the ray, -1, 0, or 1
+     * @return the number of steps, or 0 if the starting tile is outside the maze
+     */
+    public int getEdgeDistance(int x, int y, int dx, int dy) {
+        if (!inBounds(x, y, width, height))
+            return 0;
+
+        int stepsX = dx > 0 ? width - 1 - x : dx < 0 ? x : Integer.MAX_VALUE;
+        int stepsY = dy > 0 ? height - 1 - y : dy < 0 ? y : Integer.MAX_VALUE;
+        return Math.min(stepsX, stepsY);
+    }
+
+    /**
+     * Returns the index (used to look up tables) of the given ray direction.
+     *
+     * @param dx the x step of the ray, -1, 0, or 1
+     * @param dy the y step of the ray, -1, 0, or 1
+     * @return the direction index, from 0 to {@link #DIRECTIONS} (exclusive)
+     * @throws IllegalArgumentException if the step is not a valid direction
+     */
+    static int getDirectionIndex(int dx, int dy) {
+        int index = dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1 ? INDICES[(dy + 1) * 3 + (dx + 1)] : -1;
+        if (index == -1)
+            throw new IllegalArgumentException("Invalid ray direction (" + dx + ", " + dy + ")");
+        return index;
+    }
+
+    static boolean inBounds(int x, int y, int width, int height) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+}
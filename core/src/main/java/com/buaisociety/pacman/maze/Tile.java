@@ -9,17 +9,24 @@ import java.util.Objects;
 
 /**
  * Represents a tile in the maze.
+ *
+ * <p>A tile is just a view of 1 cell of its {@link Maze}: walls, tunnels and
+ * the ghost pen come from the {@link MazeLayout} shared by every game on the
+ * level, and pellets from the maze itself. Each maze creates the view the
+ * first time it is requested with {@link Maze#getTile(int, int)}, and then
+ * reuses it. Code that runs every tick can skip the view entirely with
+ * {@link Maze#getState(int, int)}.
  */
 public class Tile {
 
     private final @NotNull Maze maze;
     private final @NotNull Vector2i position;
-    private @NotNull TileState state;
+    private final int index;
 
-    public Tile(@NotNull Maze maze, @NotNull Vector2i position, @NotNull TileState state) {
+    Tile(@NotNull Maze maze, int x, int y, int index) {
         this.maze = maze;
-        this.position = position;
-        this.state = state;
+        this.position = new Vector2i(x, y);
+        this.index = index;
     }
 
     /**
@@ -48,7 +55,7 @@ public class Tile {
      * @return the current state of the tile.
      */
     public @NotNull TileState getState() {
-        return state;
+        return maze.getState(index);
     }
 
     /**
@@ -61,7 +68,7 @@ public class Tile {
      * @param state the new state of the tile.
      */
     public void setState(@NotNull TileState state) {
-        this.state = state;
+        maze.setState(index, state);
     }
 
     /**
@@ -73,9 +80,27 @@ public class Tile {
      * @return the position of the center pixel of this tile
      */
     public @NotNull Vector2i getCenterPixel() {
-        int x = position.x * Maze.TILE_SIZE + Maze.TILE_SIZE / 2 - 1;
-        int y = position.y * Maze.TILE_SIZE + Maze.TILE_SIZE / 2 - 1;
-        return new Vector2i(x, y);
+        return new Vector2i(getCenterX(), getCenterY());
+    }
+
+    /**
+     * Returns the x-coordinate of {@link #getCenterPixel()}, without
+     * allocating a vector.
+     *
+     * @return the x-coordinate of the center pixel of this tile
+     */
+    public int getCenterX() {
+        return position.x * Maze.TILE_SIZE + Maze.TILE_SIZE / 2 - 1;
+    }
+
+    /**
+     * Returns the y-coordinate of {@link #getCenterPixel()}, without
+     * allocating a vector.
+     *
+     * @return the y-coordinate of the center pixel of this tile
+     */
+    public int getCenterY() {
+        return position.y * Maze.TILE_SIZE + Maze.TILE_SIZE / 2 - 1;
     }
 
     /**
@@ -85,7 +110,7 @@ public class Tile {
      * @return the neighbor tile in the given direction
      */
     public @NotNull Tile getNeighbor(@NotNull Direction direction) {
-        return maze.getTile(position.x + direction.getDx(), position.y + direction.getDy());
+        return maze.getTile(maze.getLayout().getNeighbor(index, direction));
     }
 
     @Override
@@ -1,5 +1,7 @@
 package com.buaisociety.pacman.maze;
 
+import org.jetbrains.annotations.NotNull;
+
 /**
  * Represents the state of a tile on the board.
  *
@@ -41,6 +43,11 @@ public enum TileState {
      */
     GHOST_PEN(false);
 
+    /**
+     * Every state, indexed by {@link #ordinal()}. Used to read the states
+     * stored as bytes in a {@link Maze}. Never modified.
+     */
+    static final @NotNull TileState[] VALUES = values();
 
     private final boolean isPassable;
 
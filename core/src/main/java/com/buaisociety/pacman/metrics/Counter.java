@@ -0,0 +1,47 @@
+package com.buaisociety.pacman.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count that many threads can add to at the same time, without locking.
+ *
+ * <p>Each thread adds to its own cell, so threads never fight over the
+ * same cache line. Reading the count sums the cells, so it is slower than
+ * adding, and should only be done when reporting.
+ */
+public class Counter {
+
+    private final @NotNull String name;
+    private final @NotNull LongAdder count = new LongAdder();
+
+    public Counter(@NotNull String name) {
+        this.name = name;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    /**
+     * Returns the count since the last {@link #reset()}.
+     *
+     * @return the count
+     */
+    public long get() {
+        return count.sum();
+    }
+
+    public void reset() {
+        count.reset();
+    }
+}
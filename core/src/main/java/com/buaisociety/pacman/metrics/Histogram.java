@@ -0,0 +1,165 @@
+package com.buaisociety.pacman.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the distribution of non-negative values (usually durations in
+ * nanoseconds), from many threads at the same time, without locking.
+ *
+ * <p>Values are counted in buckets by their highest set bit, so bucket
+ * <code>i</code> holds values in <code>[2^(i-1), 2^i)</code>. Percentiles
+ * are only precise to within a factor of 2, which is plenty to see where
+ * the time goes.
+ *
+ * <p>Each thread records into its own shard with plain (non-atomic) adds,
+ * so threads never fight over the same cache lines. The shards are only
+ * summed when the histogram is read, which should only happen when
+ * reporting. Values recorded while reading may or may not be included.
+ */
+public class Histogram {
+
+    // Bucket 0 holds 0, and bucket 63 holds values with bit 62 set
+    private static final int BUCKETS = Long.SIZE;
+
+    private final @NotNull String name;
+    private final @NotNull List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final @NotNull ThreadLocal<Shard> localShard = ThreadLocal.withInitial(this::createShard);
+    private volatile int epoch;  // incremented by reset(), shards from an older epoch are empty
+
+    public Histogram(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * The values recorded by 1 thread. Only the owning thread writes to it.
+     */
+    private static final class Shard {
+        private final long @NotNull [] buckets = new long[BUCKETS];
+        private long count;
+        private long total;
+        private long max;
+        private volatile int epoch;
+    }
+
+    private @NotNull Shard createShard() {
+        Shard shard = new Shard();
+        shard.epoch = epoch;
+        shards.add(shard);
+        return shard;
+    }
+
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Records 1 value. Negative values are recorded as 0.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        Shard shard = localShard.get();
+        int epoch = this.epoch;
+        if (shard.epoch != epoch) {
+            // Reset since this thread last recorded, only the owner clears its shard
+            Arrays.fill(shard.buckets, 0);
+            shard.count = 0;
+            shard.total = 0;
+            shard.max = 0;
+            shard.epoch = epoch;
+        }
+
+        shard.buckets[Long.SIZE - Long.numberOfLeadingZeros(value)]++;
+        shard.count++;
+        shard.total += value;
+        if (value > shard.max)
+            shard.max = value;
+    }
+
+    public long getCount() {
+        long count = 0;
+        int epoch = this.epoch;
+        for (Shard shard : shards) {
+            if (shard.epoch == epoch)
+                count += shard.count;
+        }
+        return count;
+    }
+
+    public long getTotal() {
+        long total = 0;
+        int epoch = this.epoch;
+        for (Shard shard : shards) {
+            if (shard.epoch == epoch)
+                total += shard.total;
+        }
+        return total;
+    }
+
+    public long getMax() {
+        long max = 0;
+        int epoch = this.epoch;
+        for (Shard shard : shards) {
+            if (shard.epoch == epoch)
+                max = Math.max(max, shard.max);
+        }
+        return max;
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) getTotal() / count;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile, which is at most 2x
+     * the real value.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket the percentile falls in, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        int epoch = this.epoch;
+        for (Shard shard : shards) {
+            if (shard.epoch != epoch)
+                continue;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] += shard.buckets[i];
+                count += shard.buckets[i];
+            }
+        }
+        if (count == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, rank))
+                return Math.min(getMax(), upperBound(i));
+        }
+        return getMax();
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket == 0)
+            return 0;
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Forgets every recorded value. Each thread clears its own shard the
+     * next time it records, so values recorded while resetting may be
+     * partly lost, which is fine for reporting.
+     */
+    public void reset() {
+        epoch++;  // only 1 thread resets at a time
+    }
+}
@@ -0,0 +1,121 @@
+package com.buaisociety.pacman.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the timings of each {@link Phase} and the named {@link Counter}s,
+ * shared by every game and thread.
+ *
+ * <p>Everything is lock-free, so recording from the hot paths is cheap:
+ * timing a phase costs 2 calls to {@link System#nanoTime()} and a few adds
+ * to the calling thread's own {@link Histogram} shard. Metrics are disabled
+ * by default, and when disabled, phases aren't timed at all.
+ *
+ * <p>The trainer prints a {@link #report(String)} and {@link #reset() resets}
+ * the metrics once per generation, but the metrics can also be read at any
+ * time through {@link Phase#getHistogram()} and {@link #getCounters()}.
+ */
+public final class Metrics {
+
+    private static volatile boolean enabled = false;
+    private static final @NotNull Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static volatile long resetNanos = System.nanoTime();
+
+    // Prevent instantiation
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it the first time.
+     * Looking up a counter is slower than adding to it, so keep a reference
+     * to counters used in hot paths.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    public static @NotNull Counter counter(@NotNull String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Returns every counter, sorted by name.
+     *
+     * @return a copy of the counters
+     */
+    public static @NotNull List<Counter> getCounters() {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparing(Counter::getName));
+        return sorted;
+    }
+
+    /**
+     * Returns the number of seconds since the last {@link #reset()}.
+     *
+     * @return the seconds since the metrics were reset
+     */
+    public static double getElapsedSeconds() {
+        return (System.nanoTime() - resetNanos) / 1e9;
+    }
+
+    /**
+     * Resets every phase and counter, so the next report only covers what
+     * happens after this.
+     */
+    public static void reset() {
+        for (Phase phase : Phase.values()) {
+            phase.getHistogram().reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    /**
+     * Formats every phase and counter since the last {@link #reset()} into a
+     * table. Counters are also shown per second.
+     *
+     * @param title the first line of the report
+     * @return the report
+     */
+    public static @NotNull String report(@NotNull String title) {
+        double seconds = getElapsedSeconds();
+        StringBuilder builder = new StringBuilder();
+        builder.append(title).append(String.format(" (%.1fs)%n", seconds));
+        builder.append(String.format("  %-20s %10s %10s %10s %10s %10s %10s%n", "Phase", "Count", "Total ms", "Mean us", "p50 us", "p99 us", "Max us"));
+        for (Phase phase : Phase.values()) {
+            Histogram histogram = phase.getHistogram();
+            if (histogram.getCount() == 0)
+                continue;
+
+            builder.append(String.format("  %-20s %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                phase.getName(),
+                histogram.getCount(),
+                histogram.getTotal() / 1e6,
+                histogram.getMean() / 1e3,
+                histogram.getPercentile(50) / 1e3,
+                histogram.getPercentile(99) / 1e3,
+                histogram.getMax() / 1e3));
+        }
+
+        for (Counter counter : getCounters()) {
+            long count = counter.get();
+            builder.append(String.format("  %-40s %12d %12.0f/s%n", counter.getName(), count, seconds > 0 ? count / seconds : 0.0));
+        }
+        return builder.toString();
+    }
+}
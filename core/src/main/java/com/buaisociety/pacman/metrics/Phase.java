@@ -0,0 +1,113 @@
+package com.buaisociety.pacman.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A phase of training that is timed.
+ *
+ * <p>Phases may be nested, so their times should not be summed. For example,
+ * a {@link #DECISION} of pacman includes the {@link #FEATURES} and
+ * {@link #NETWORK} phases.
+ *
+ * <p>To time a phase:
+ * <pre>{@code
+ * long start = Phase.EVOLVE.start();
+ * neat.evolve();
+ * Phase.EVOLVE.stop(start);
+ * }</pre>
+ */
+public enum Phase {
+
+    /**
+     * An entity's behavior picking a direction.
+     */
+    DECISION("Behavior decision"),
+
+    /**
+     * Building the inputs of a neural network.
+     */
+    FEATURES("Feature extraction"),
+
+    /**
+     * Evaluating 1 neural network.
+     */
+    NETWORK("Network evaluation"),
+
+    /**
+     * Updating every entity of a maze for 1 tick.
+     */
+    ENTITY_UPDATE("Entity update"),
+
+    /**
+     * {@link com.buaisociety.pacman.GameManager#postUpdate()}.
+     */
+    POST_UPDATE("Post update"),
+
+    /**
+     * {@link com.buaisociety.pacman.GameManager#nextLevel()}.
+     */
+    LEVEL_LOAD("Level load"),
+
+    /**
+     * Rendering 1 frame.
+     */
+    RENDER("Render"),
+
+    /**
+     * Evolving the population into the next generation.
+     */
+    EVOLVE("Evolve"),
+
+    /**
+     * Saving the population, on whichever thread saves it.
+     */
+    CHECKPOINT("Checkpoint save");
+
+    private final @NotNull Histogram histogram;
+
+    Phase(@NotNull String name) {
+        this.histogram = new Histogram(name);
+    }
+
+    public @NotNull String getName() {
+        return histogram.getName();
+    }
+
+    /**
+     * Returns the durations of this phase, in nanoseconds.
+     *
+     * @return the histogram of durations
+     */
+    public @NotNull Histogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Starts timing this phase.
+     *
+     * @return the time to pass to {@link #stop(long)}, or 0 if metrics are disabled
+     */
+    public long start() {
+        return Metrics.isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Stops timing this phase, and records how long it took.
+     *
+     * @param start the time returned by {@link #start()}
+     */
+    public void stop(long start) {
+        if (start != 0L)
+            histogram.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Records a duration that was measured some other way.
+     *
+     * @param nanos how long the phase took, in nanoseconds
+     */
+    public void record(long nanos) {
+        if (Metrics.isEnabled())
+            histogram.record(nanos);
+    }
+}
@@ -14,6 +14,13 @@ import org.joml.Vector2ic;
 
 public class GrayscaleSpriteSheet implements Disposable {
 
+    private static final String[] COLOR_UNIFORMS = new String[10];  // size of u_colors in grayscale.frag
+
+    static {
+        for (int i = 0; i < COLOR_UNIFORMS.length; i++)
+            COLOR_UNIFORMS[i] = "u_colors[" + i + "]";
+    }
+
     private final @NotNull Vector2i tileSize;
     private final @NotNull Vector2i tiles;
     private final @NotNull Vector2i currentTile;
@@ -74,14 +81,34 @@ public class GrayscaleSpriteSheet implements Disposable {
     }
 
     public void render(@NotNull SpriteBatch batch, int x, int y) {
+        begin(batch);
+        draw(batch, x, y);
+        end(batch);
+    }
+
+    /**
+     * Switches the batch to this sprite sheet's shader and colors. Switching
+     * shaders flushes the batch, so when drawing the same tile many times
+     * (like the pellets), call this once, then {@link #draw(SpriteBatch, int, int)}
+     * for each tile, then {@link #end(SpriteBatch)}. The colors and the
+     * current tile must not change in between.
+     *
+     * @param batch the batch to draw with
+     */
+    public void begin(@NotNull SpriteBatch batch) {
         batch.setShader(shader);
         shader.bind();
         for (int i = 0; i < colors.size; i++) {
-            shader.setUniformf("u_colors[" + i + "]", colors.get(i));
+            shader.setUniformf(COLOR_UNIFORMS[i], colors.get(i));
         }
         shader.setUniformi("u_numColors", colors.size);
+    }
 
+    public void draw(@NotNull SpriteBatch batch, int x, int y) {
         batch.draw(currentTileRegion, x, y);
+    }
+
+    public void end(@NotNull SpriteBatch batch) {
         batch.setShader(null);
     }
 
@@ -6,6 +6,8 @@ import org.jetbrains.annotations.NotNull;
 import org.joml.Vector2d;
 import org.joml.Vector2i;
 
+import java.util.function.Supplier;
+
 /**
  * Represents a particle that can be rendered on the screen.
  */
@@ -18,11 +20,24 @@ public class Particle {
     private int liveFor = -1;  // ticks before death
 
     // Visual properties
-    private final GrayscaleSpriteSheet spriteSheet;
+    private final Supplier<GrayscaleSpriteSheet> spriteSheet;
     private final Vector2i spriteTile;
     private final Color[] colors;
 
     public Particle(@NotNull GrayscaleSpriteSheet spriteSheet, @NotNull Vector2i spriteTile, @NotNull Color[] colors) {
+        this(() -> spriteSheet, spriteTile, colors);
+    }
+
+    /**
+     * Creates a particle whose sprite sheet is only resolved when it is first
+     * rendered. Particles are usually created on the update threads, which
+     * are not allowed to load textures.
+     *
+     * @param spriteSheet supplies the sprite sheet on the render thread
+     * @param spriteTile the tile of the sprite sheet to render
+     * @param colors the colors to render the sprite with
+     */
+    public Particle(@NotNull Supplier<GrayscaleSpriteSheet> spriteSheet, @NotNull Vector2i spriteTile, @NotNull Color[] colors) {
         this.spriteSheet = spriteSheet;
         this.spriteTile = spriteTile;
         this.colors = colors;
@@ -72,6 +87,7 @@ public class Particle {
         }
 
         liveFor--;
+        GrayscaleSpriteSheet spriteSheet = this.spriteSheet.get();
         spriteSheet.setCurrentTile(spriteTile.x, spriteTile.y);
         spriteSheet.setColors(colors);
 
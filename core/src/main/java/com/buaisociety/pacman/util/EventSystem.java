@@ -1,17 +1,79 @@
 package com.buaisociety.pacman.util;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents an event system that can be used to listen to events.
+ *
+ * <p>Listeners are registered rarely, but events are fired every tick. So
+ * every time a listener is (un)registered, the listeners of each event type
+ * are copied into a new immutable array, and firing an event only needs 1
+ * identity map lookup and a loop over the array, without locking or
+ * allocating.
+ *
+ * <p>To avoid creating events no one listens to, check {@link #hasListeners(Class)}
+ * first. Events may also be reused and fired many times, so listeners
+ * should not keep a reference to an event after {@link EventListener#onEvent(Event)}
+ * returns.
+ *
+ * <p>Event systems can be nested. Each game should get its own event system,
+ * with 1 shared parent for every game. Listeners that only care about 1 game
+ * are registered to that game's event system, so games running on different
+ * threads never touch the same listeners. Listeners that care about every
+ * game (like {@link com.buaisociety.pacman.event.GameEndEvent}) are registered
+ * to the parent, and an event is only passed on to the parent when the
+ * parent has listeners for it.
+ *
+ * <p>An event system with a parent belongs to 1 game, and must only be used
+ * by the thread updating that game, so its listeners are kept in a plain
+ * map. An event system without a parent may be shared by many threads, so
+ * its map is never modified, and is replaced with a copy whenever a
+ * listener is (un)registered.
  */
 public class EventSystem {
 
-    private final Map<Class<? extends Event>, Set<EventListener<?>>> listeners = new ConcurrentHashMap<>();
+    private static final EventListener<?>[] NO_LISTENERS = new EventListener<?>[0];
+
+    private final @Nullable EventSystem parent;
+
+    // Only used by 1 thread, modified in place. Null if this event system is shared
+    private final @Nullable Map<Class<? extends Event>, EventListener<?>[]> localListeners;
+
+    // Never modified, replaced with a new map whenever a listener is (un)registered
+    private volatile @NotNull Map<Class<? extends Event>, EventListener<?>[]> sharedListeners = new IdentityHashMap<>();
+
+    /**
+     * Creates an event system without a parent.
+     */
+    public EventSystem() {
+        this(null);
+    }
+
+    /**
+     * Creates an event system that passes events on to the parent, after
+     * its own listeners are called. An event system with a parent must only
+     * be used by 1 thread at a time.
+     *
+     * @param parent the event system to pass events on to, or null.
+     */
+    public EventSystem(@Nullable EventSystem parent) {
+        this.parent = parent;
+        this.localListeners = parent == null ? null : new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the event system that events are passed on to.
+     *
+     * @return the parent, or null if there is none.
+     */
+    public @Nullable EventSystem getParent() {
+        return parent;
+    }
 
     /**
      * Adds a listener to be called when the <code>eventClass</code> event is fired.
@@ -21,7 +83,25 @@ public class EventSystem {
      * @param <T> the type of event to listen to.
      */
     public <T extends Event> void registerListener(@NotNull Class<T> eventClass, @NotNull EventListener<T> listener) {
-        listeners.computeIfAbsent(eventClass, k -> ConcurrentHashMap.newKeySet()).add(listener);
+        if (localListeners != null) {
+            register(eventClass, listener);
+            return;
+        }
+        synchronized (this) {
+            register(eventClass, listener);
+        }
+    }
+
+    private void register(@NotNull Class<? extends Event> eventClass, @NotNull EventListener<?> listener) {
+        EventListener<?>[] current = listeners().getOrDefault(eventClass, NO_LISTENERS);
+        for (EventListener<?> registered : current) {
+            if (registered.equals(listener))
+                return;
+        }
+
+        EventListener<?>[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        replace(eventClass, updated);
     }
 
     /**
@@ -33,17 +113,66 @@ public class EventSystem {
      * @param <T> the type of event to stop listening to.
      */
     public <T extends Event> void unregisterListener(@NotNull Class<T> eventClass, @NotNull EventListener<T> listener) {
-        Set<EventListener<?>> listeners = this.listeners.get(eventClass);
-        if (listeners != null) {
-            listeners.remove(listener);
+        if (localListeners != null) {
+            unregister(eventClass, listener);
+            return;
+        }
+        synchronized (this) {
+            unregister(eventClass, listener);
         }
     }
 
+    private void unregister(@NotNull Class<? extends Event> eventClass, @NotNull EventListener<?> listener) {
+        EventListener<?>[] current = listeners().get(eventClass);
+        if (current == null)
+            return;
+
+        EventListener<?>[] updated = Arrays.stream(current)
+            .filter(registered -> !registered.equals(listener))
+            .toArray(EventListener<?>[]::new);
+        if (updated.length != current.length)
+            replace(eventClass, updated);
+    }
+
     /**
-     * Removes all listeners from the event system.
+     * Removes all listeners from the event system. Listeners of the parent
+     * are not removed.
      */
     public void unregisterAllListeners() {
-        this.listeners.clear();
+        if (localListeners != null) {
+            localListeners.clear();
+            return;
+        }
+        synchronized (this) {
+            this.sharedListeners = new IdentityHashMap<>();
+        }
+    }
+
+    private @NotNull Map<Class<? extends Event>, EventListener<?>[]> listeners() {
+        return localListeners != null ? localListeners : sharedListeners;
+    }
+
+    private void replace(@NotNull Class<? extends Event> eventClass, EventListener<?> @NotNull [] updated) {
+        Map<Class<? extends Event>, EventListener<?>[]> map = localListeners != null ? localListeners : new IdentityHashMap<>(sharedListeners);
+        if (updated.length == 0)
+            map.remove(eventClass);
+        else
+            map.put(eventClass, updated);
+        if (localListeners == null)
+            this.sharedListeners = map;
+    }
+
+    /**
+     * Returns true if at least 1 listener is registered for the event, in
+     * this event system or any of its parents. When this returns false,
+     * firing the event does nothing, so the event does not need to be
+     * created at all.
+     *
+     * @param eventClass the class of the event.
+     * @return true if the event has listeners.
+     */
+    public boolean hasListeners(@NotNull Class<? extends Event> eventClass) {
+        return listeners().containsKey(eventClass) || (parent != null && parent.hasListeners(eventClass));
     }
 
     /**
@@ -54,20 +183,21 @@ public class EventSystem {
      * @param <T> the type of event to fire.
      */
     public <T extends Event> @NotNull T fireEvent(@NotNull T event) {
-        Set<EventListener<?>> listeners = this.listeners.get(event.getClass());
-        if (listeners == null)
-            return event;
-
-        for (EventListener<?> listener : listeners) {
-            try {
-                //noinspection unchecked
-                ((EventListener<T>) listener).onEvent(event);
-            } catch (Exception e) {
-               System.err.println("An error occurred while calling an event listener: " + e.getMessage());
-               e.printStackTrace();
+        EventListener<?>[] listeners = listeners().get(event.getClass());
+        if (listeners != null) {
+            for (EventListener<?> listener : listeners) {
+                try {
+                    //noinspection unchecked
+                    ((EventListener<T>) listener).onEvent(event);
+                } catch (Exception e) {
+                   System.err.println("An error occurred while calling an event listener: " + e.getMessage());
+                   e.printStackTrace();
+                }
             }
         }
 
+        if (parent != null && parent.hasListeners(event.getClass()))
+            parent.fireEvent(event);
         return event;
     }
 }
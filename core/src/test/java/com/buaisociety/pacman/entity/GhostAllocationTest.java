@@ -0,0 +1,134 @@
+package com.buaisociety.pacman.entity;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.buaisociety.pacman.GameManager;
+import com.buaisociety.pacman.entity.behavior.TargetableBehavior;
+import com.buaisociety.pacman.event.NextLevelEvent;
+import com.buaisociety.pacman.maze.Maze;
+import com.buaisociety.pacman.util.EventSystem;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that ghosts don't allocate while they move and pick directions, so
+ * thousands of games can run without the garbage collector. Each ghost is
+ * warmed up first, so the numbers are from the compiled code.
+ */
+public class GhostAllocationTest {
+
+    private static final int TICKS_PER_RUN = 50_000;
+    private static final int WARMUP_RUNS = 5;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static HeadlessApplication app;
+    private static int sink;  // keeps the results, so the calls can't be optimized away
+
+    @BeforeAll
+    public static void init() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // Starts Gdx.files, so the maze assets can be loaded. Never calls render()
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = -1;
+        app = new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+    }
+
+    @AfterAll
+    public static void dispose() {
+        // Lets the application shut down, in case its loop is still running
+        if (app != null)
+            app.exit();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3})
+    public void testUpdate(int ghostIndex) {
+        GhostEntity ghost = createGhost(ghostIndex);
+        for (int i = 0; i < WARMUP_RUNS; i++)
+            update(ghost);
+
+        assertEquals(0, update(ghost), "bytes allocated by GhostEntity.update()");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3})
+    public void testChaseDirection(int ghostIndex) {
+        GhostEntity ghost = createGhost(ghostIndex);
+        TargetableBehavior chase = (TargetableBehavior) ghost.getBehavior(GhostState.CHASE);
+        for (int i = 0; i < WARMUP_RUNS; i++)
+            getDirection(chase, ghost);
+
+        assertEquals(0, getDirection(chase, ghost), "bytes allocated by TargetableBehavior.getDirection()");
+    }
+
+    // The warm up calls the same methods that are measured, so the measured
+    // loops are already compiled, and no bytes come from the JIT switching
+    // a running loop to compiled code
+
+    private static long update(@NotNull GhostEntity ghost) {
+        long before = allocatedBytes();
+        for (int i = 0; i < TICKS_PER_RUN; i++)
+            ghost.update();
+        return allocatedBytes() - before;
+    }
+
+    private static long getDirection(@NotNull TargetableBehavior chase, @NotNull GhostEntity ghost) {
+        long before = allocatedBytes();
+        int ordinals = 0;
+        for (int i = 0; i < TICKS_PER_RUN; i++)
+            ordinals += chase.getDirection(ghost).ordinal();
+        long bytes = allocatedBytes() - before;
+        sink += ordinals;
+        return bytes;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    /**
+     * Creates a game on maze 9 (which has all 4 ghosts), with pacman standing
+     * still on its spawn, and returns 1 of its ghosts chasing pacman.
+     */
+    private static @NotNull GhostEntity createGhost(int ghostIndex) {
+        EventSystem events = new EventSystem();
+        events.registerListener(NextLevelEvent.class, event -> event.setNextLevel("9"));
+
+        GameManager.Config config = new GameManager.Config();
+        config.headless = true;
+        config.fastForward = true;
+        GameManager game = new GameManager(events, config);
+        game.nextLevel();
+
+        Maze maze = game.getCurrentMaze();
+        assertNotNull(maze);
+        maze.skipFrozenTicks();
+
+        List<GhostEntity> ghosts = new ArrayList<>();
+        for (Entity entity : maze.getEntities()) {
+            if (entity instanceof GhostEntity ghost)
+                ghosts.add(ghost);
+        }
+
+        GhostEntity ghost = ghosts.get(ghostIndex);
+        ghost.setReleased(true);
+        ghost.setState(GhostState.CHASE);
+        return ghost;
+    }
+}
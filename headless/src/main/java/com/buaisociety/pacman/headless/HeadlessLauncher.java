@@ -0,0 +1,55 @@
+package com.buaisociety.pacman.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.buaisociety.pacman.GameLoop;
+import com.buaisociety.pacman.Trainer;
+
+/**
+ * Launches NEAT training without a window or GL context. This is meant for
+ * servers and build boxes without a display, where the training should run
+ * as fast as the CPU allows instead of being tied to a render loop.
+ */
+public class HeadlessLauncher extends ApplicationAdapter {
+
+    // Ticks each game runs per render() call. Each call waits for the slowest
+    // game, so bigger steps spend less time waiting on each other
+    private static final int TICKS_PER_UPDATE = 60;
+
+    private Trainer trainer;
+    private GameLoop secondLoop;  // 1 update per second
+    private int ticks;
+    private int tps;
+
+    public static void main(String[] args) {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // 0 means call render() as often as possible, with no sleeping between calls
+        config.updatesPerSecond = 0;
+        new HeadlessApplication(new HeadlessLauncher(), config);
+    }
+
+    @Override
+    public void create() {
+        trainer = new Trainer(true);
+        secondLoop = new GameLoop(1);
+    }
+
+    @Override
+    public void render() {
+        ticks += TICKS_PER_UPDATE;
+        tps += TICKS_PER_UPDATE;
+
+        if (secondLoop.update()) {
+            System.out.println("TPS: " + tps + ", Ticks: " + ticks);
+            tps = 0;
+        }
+
+        trainer.update(TICKS_PER_UPDATE);
+    }
+
+    @Override
+    public void dispose() {
+        trainer.dispose();
+    }
+}
@@ -0,0 +1,60 @@
+package com.buaisociety.pacman.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.buaisociety.pacman.Leaderboard;
+import com.buaisociety.pacman.TournamentEvaluator;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Scores every saved network in the saves folder on the same seeded
+ * tournament games, and writes the ranking to <code>leaderboard.txt</code>
+ * in that folder. Saves that were already scored are skipped, see
+ * {@link Leaderboard}.
+ *
+ * <p>Usage: <code>LeaderboardLauncher [saves folder] [games] [first seed] [threads]</code>.
+ * Paths are relative to the assets folder.
+ */
+public class LeaderboardLauncher extends ApplicationAdapter {
+
+    private final Path saves;
+    private final int games;
+    private final long seed;
+    private final int threads;
+
+    public LeaderboardLauncher(Path saves, int games, long seed, int threads) {
+        this.saves = saves;
+        this.games = games;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        Path saves = Paths.get(args.length > 0 ? args[0] : "saves");
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // Negative means never call render(), the application stops once create() returns
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(new LeaderboardLauncher(saves, games, seed, threads), config);
+    }
+
+    @Override
+    public void create() {
+        Leaderboard leaderboard = new Leaderboard(saves, new TournamentEvaluator.Config(), games, seed, threads);
+        try {
+            long start = System.nanoTime();
+            int scored = leaderboard.run().size();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Ranked %d saves in %.1fs, see %s%n", scored, seconds, leaderboard.getOutputFile().toAbsolutePath());
+        } catch (Exception e) {
+            System.err.println("Could not build the leaderboard for " + saves.toAbsolutePath());
+            e.printStackTrace();
+        }
+    }
+}
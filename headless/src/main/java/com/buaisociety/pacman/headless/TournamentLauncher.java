@@ -0,0 +1,73 @@
+package com.buaisociety.pacman.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.buaisociety.pacman.TournamentEvaluator;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Scores a saved network on the tournament levels, by playing many seeded
+ * games in parallel without a window.
+ *
+ * <p>Usage: <code>TournamentLauncher &lt;save&gt; [games] [first seed] [threads]</code>,
+ * for example <code>TournamentLauncher saves/oct26-80/best-calculator-63.json 1000</code>.
+ * Paths are relative to the assets folder.
+ */
+public class TournamentLauncher extends ApplicationAdapter {
+
+    private final File save;
+    private final int games;
+    private final long seed;
+    private final int threads;
+
+    public TournamentLauncher(File save, int games, long seed, int threads) {
+        this.save = save;
+        this.games = games;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: TournamentLauncher <save> [games] [first seed] [threads]");
+            System.exit(1);
+        }
+
+        File save = new File(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // Negative means never call render(), the application stops once create() returns
+        config.updatesPerSecond = -1;
+        new HeadlessApplication(new TournamentLauncher(save, games, seed, threads), config);
+    }
+
+    @Override
+    public void create() {
+        TournamentEvaluator evaluator;
+        try {
+            evaluator = TournamentEvaluator.load(save, new TournamentEvaluator.Config(), threads);
+        } catch (Exception e) {
+            System.err.println("Could not load the save: " + save.getAbsolutePath());
+            e.printStackTrace();
+            return;
+        }
+
+        System.out.println("Playing " + games + " games of " + save + " on " + threads + " threads");
+        try {
+            long start = System.nanoTime();
+            List<TournamentEvaluator.Episode> episodes = evaluator.run(games, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.print(TournamentEvaluator.report(episodes));
+            System.out.printf("Finished in %.1fs%n", seconds);
+        } finally {
+            evaluator.dispose();
+        }
+    }
+}
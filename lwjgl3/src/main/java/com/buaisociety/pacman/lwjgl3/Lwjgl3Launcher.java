@@ -14,20 +14,14 @@ public class Lwjgl3Launcher {
 
     private static Lwjgl3Application createApplication() {
         boolean isTraining = false; // set this as false to try out the tournament settings
+        // The games tick on their own thread (see Simulation), so the window
+        // only needs to render at the monitor's refresh rate
+        Lwjgl3ApplicationConfiguration config = getDefaultConfiguration();
+        config.useVsync(true);
+        config.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
         if (isTraining) {
-            Lwjgl3ApplicationConfiguration config = getDefaultConfiguration();
-            // disable vsync to run the game as fast as possible
-            config.useVsync(false);
-            config.setForegroundFPS(2000);
-
-            // hard limit on fps to see the game running at a reasonable speed
-             return new Lwjgl3Application(new Main(), config);
+            return new Lwjgl3Application(new Main(), config);
         } else {
-            Lwjgl3ApplicationConfiguration config = getDefaultConfiguration();
-            // enable vsync to limit the fps to the monitor refresh rate
-            config.useVsync(false);
-            // pacman runs at 60 updates per second
-            config.setForegroundFPS(240);
             return new Lwjgl3Application(new Tournament(), config);
         }
     }